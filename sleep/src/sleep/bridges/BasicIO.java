@@ -99,6 +99,8 @@ public class BasicIO implements Loadable, Function
         temp.put("&mark",       new mark());
         temp.put("&skip",       temp.get("&consume"));
         temp.put("&reset",      new reset());
+        temp.put("&seek",       new seek());
+        temp.put("&tell",       temp.get("&seek"));
         temp.put("&wait",       this);
 
         // typical ASCII'sh output functions
@@ -263,18 +265,28 @@ public class BasicIO implements Loadable, Function
           else if (s.objectValue() != null && s.objectValue() instanceof MessageDigest)
           {
              MessageDigest sum = (MessageDigest)s.objectValue();
-             return SleepUtils.getScalar(sum.digest());
+             return BridgeUtilities.getBytesScalar(sum.digest());
           }
           else
           {
-             String temp = s.toString();
              String algo = BridgeUtilities.getString(l, "MD5");
              try
              {
 
                 MessageDigest doit = MessageDigest.getInstance(algo);
-                doit.update(BridgeUtilities.toByteArrayNoConversion(temp), 0, temp.length());
-                return SleepUtils.getScalar(doit.digest());
+
+                if (s.getActualValue() instanceof BytesValue)
+                {
+                   BytesValue data = (BytesValue)s.getActualValue();
+                   doit.update(data.getData(), data.getOffset(), data.getLength());
+                }
+                else
+                {
+                   String temp = s.toString();
+                   doit.update(BridgeUtilities.toByteArrayNoConversion(temp), 0, temp.length());
+                }
+
+                return BridgeUtilities.getBytesScalar(doit.digest());
              }
              catch (NoSuchAlgorithmException ex)
              {
@@ -345,11 +357,21 @@ public class BasicIO implements Loadable, Function
           }
           else
           {
-             String temp = s.toString();
              String algo = BridgeUtilities.getString(l, "CRC32");
 
              Checksum doit = getChecksum(algo);
-             doit.update(BridgeUtilities.toByteArrayNoConversion(temp), 0, temp.length());
+
+             if (s.getActualValue() instanceof BytesValue)
+             {
+                BytesValue data = (BytesValue)s.getActualValue();
+                doit.update(data.getData(), data.getOffset(), data.getLength());
+             }
+             else
+             {
+                String temp = s.toString();
+                doit.update(BridgeUtilities.toByteArrayNoConversion(temp), 0, temp.length());
+             }
+
              return SleepUtils.getScalar(doit.getValue());
           }
        }
@@ -363,7 +385,7 @@ public class BasicIO implements Loadable, Function
        {
           String a = ((Scalar)l.pop()).toString();
 
-          FileObject temp = new FileObject();
+          FileObject temp = a.startsWith("<<") ? new MappedFileObject() : new FileObject();
           temp.open(a, i.getScriptEnvironment());
 
           return SleepUtils.getScalar(temp);
@@ -600,8 +622,16 @@ public class BasicIO implements Loadable, Function
        {
           IOObject a = chooseSource(l, 2, i);
 
-          String temp = BridgeUtilities.getString(l, "");
-          a.printLine(temp);
+          Scalar temp = l.isEmpty() ? SleepUtils.getScalar("") : (Scalar)l.pop();
+
+          if (temp.getArray() != null || temp.getHash() != null)
+          {
+             a.printLineDescribed(temp);
+          }
+          else
+          {
+             a.printLine(temp.toString());
+          }
 
           return SleepUtils.getEmptyScalar();
        }
@@ -683,8 +713,39 @@ public class BasicIO implements Loadable, Function
        }
     }
 
+    private static Scalar ReadCodec(DataCodec codec, InputStream in, IOObject control)
+    {
+       Scalar temp    = SleepUtils.getArrayScalar();
+       byte   bdata[] = new byte[codec.getSize()];
+       int    read    = 0;
+
+       try
+       {
+          while (read < bdata.length)
+          {
+             int last = in.read(bdata, read, bdata.length - read);
+
+             if (last == -1) { break; }
+             read += last;
+          }
+       }
+       catch (Exception ex) { }
+
+       codec.decode(ByteBuffer.wrap(bdata), read, temp.getArray());
+
+       if (read < bdata.length && control != null)
+          control.close();
+
+       return temp;
+    }
+
     private static Scalar ReadFormatted(String format, InputStream in, ScriptEnvironment env, IOObject control)
     {
+       DataCodec codec = DataCodec.Compile(format);
+
+       if (codec != null)
+          return ReadCodec(codec, in, control);
+
        Scalar temp         = SleepUtils.getArrayScalar();
        DataPattern pattern = DataPattern.Parse(format);
 
@@ -699,10 +760,7 @@ public class BasicIO implements Loadable, Function
 
           if (pattern.value == 'M')
           {
-             if (pattern.count == 1)
-                pattern.count = 1024 * 10; // 10K worth of data :)
-
-             in.mark(pattern.count);
+             in.mark(pattern.count == 1 ? 1024 * 10 : pattern.count); // 10K worth of data by default :)
           }
           else if (pattern.value == 'x')
           {
@@ -926,8 +984,6 @@ public class BasicIO implements Loadable, Function
 
     private static void WriteFormatted(String format, OutputStream out, ScriptEnvironment env, Stack arguments, IOObject control)
     {
-       DataPattern pattern  = DataPattern.Parse(format);
-
        if (arguments.size() == 1 && ((Scalar)arguments.peek()).getArray() != null)
        {
           Stack temp = new Stack();
@@ -939,6 +995,39 @@ public class BasicIO implements Loadable, Function
           return;
        }
 
+       DataCodec codec = DataCodec.Compile(format);
+
+       if (codec != null)
+       {
+          ByteBuffer buffer = ByteBuffer.allocate(codec.getSize());
+          boolean    valid  = codec.encode(buffer, arguments);
+
+          try
+          {
+             out.write(buffer.array(), 0, buffer.position());
+          }
+          catch (Exception ex)
+          {
+             valid = false;
+          }
+
+          if (!valid)
+          {
+             if (control != null) control.close();
+             return;
+          }
+
+          try
+          {
+             out.flush();
+          }
+          catch (Exception ex) { }
+
+          return;
+       }
+
+       DataPattern pattern  = DataPattern.Parse(format);
+
        byte        bdata[] = new byte[8]; 
        ByteBuffer  buffer  = ByteBuffer.wrap(bdata);
 
@@ -1220,20 +1309,50 @@ public class BasicIO implements Loadable, Function
        }
     }
 
+    private static class seek implements Function
+    {
+       public Scalar evaluate(String n, ScriptInstance i, Stack l)
+       {
+          Scalar h = BridgeUtilities.getScalar(l);
+
+          if (!(h.objectValue() instanceof MappedFileObject))
+          {
+             throw new IllegalArgumentException(n + ": expected a mapped file handle, received: " + SleepUtils.describe(h));
+          }
+
+          MappedFileObject a = (MappedFileObject)h.objectValue();
+
+          if (n.equals("&seek"))
+          {
+             a.seek(BridgeUtilities.getLong(l, 0));
+          }
+
+          return SleepUtils.getScalar(a.tell());
+       }
+    }
+
     private static class unpack implements Function
     {
        public Scalar evaluate(String n, ScriptInstance i, Stack l)
        {
           String    pattern = BridgeUtilities.getString(l, "");
-          String    data    = BridgeUtilities.getString(l, "");
+          Scalar    data    = BridgeUtilities.getScalar(l);
 
           try
           {
-             ByteArrayOutputStream out = new ByteArrayOutputStream(data.length());
-             DataOutputStream toBytes  = new DataOutputStream(out);
-             toBytes.writeBytes(data);     
+             ByteArrayInputStream in;
 
-             return ReadFormatted(pattern, new DataInputStream(new ByteArrayInputStream(out.toByteArray())), i.getScriptEnvironment(), null);
+             if (data.getActualValue() instanceof BytesValue)
+             {
+                BytesValue bytes = (BytesValue)data.getActualValue();
+                in = new ByteArrayInputStream(bytes.getData(), bytes.getOffset(), bytes.getLength());
+             }
+             else
+             {
+                in = new ByteArrayInputStream(BridgeUtilities.toByteArrayNoConversion(data.toString()));
+             }
+
+             return ReadFormatted(pattern, new DataInputStream(in), i.getScriptEnvironment(), null);
           }
           catch (Exception ex)
           {
@@ -1252,7 +1371,7 @@ public class BasicIO implements Loadable, Function
          
           WriteFormatted(pattern, new DataOutputStream(temp), i.getScriptEnvironment(), l, null);
 
-          return SleepUtils.getScalar(temp.toByteArray(), temp.size());
+          return BridgeUtilities.getBytesScalar(temp.toByteArray(), temp.size());
        }
     }
 
@@ -1261,14 +1380,23 @@ public class BasicIO implements Loadable, Function
        public Scalar evaluate(String n, ScriptInstance i, Stack l)
        {
           IOObject     a = chooseSource(l, 2, i);
-          String    data = BridgeUtilities.getString(l, "");
+          Scalar    data = BridgeUtilities.getScalar(l);
 
           try
           {
-             for (int x = 0; x < data.length(); x++)
+             if (data.getActualValue() instanceof BytesValue)
              {
-                a.getWriter().writeByte((byte)data.charAt(x));
-             } 
+                BytesValue bytes = (BytesValue)data.getActualValue();
+                a.getWriter().write(bytes.getData(), bytes.getOffset(), bytes.getLength());
+             }
+             else
+             {
+                String temp = data.toString();
+                for (int x = 0; x < temp.length(); x++)
+                {
+                   a.getWriter().writeByte((byte)temp.charAt(x));
+                } 
+             }
              a.getWriter().flush();
           }
           catch (Exception ex)
@@ -1289,7 +1417,7 @@ public class BasicIO implements Loadable, Function
           int               to = BridgeUtilities.getInt(l, 1);
           int             last = 0;
           byte[]          temp = null;
-          StringBuffer  buffer = null;
+          ByteArrayOutputStream buffer = null;
 
           if (a.getReader() != null)
           {
@@ -1299,19 +1427,19 @@ public class BasicIO implements Loadable, Function
              {
                 if (to == -1)
                 {
-                   buffer = new StringBuffer(BridgeUtilities.getInt(l, 2048));
+                   buffer = new ByteArrayOutputStream(BridgeUtilities.getInt(l, 2048));
+                   temp   = new byte[8192];
 
                    while (true)
                    { 
-                      last = a.getReader().read();
+                      last = a.getReader().read(temp, 0, temp.length);
 
                       if (last == -1)
                          break;
 
-                      char append = (char)(last & 0xFF);
-                      buffer.append(append);      
+                      buffer.write(temp, 0, last);
        
-                      read++; 
+                      read += last; 
                    }
                 }
                 else
@@ -1337,11 +1465,11 @@ public class BasicIO implements Loadable, Function
 
              if (read > 0)
              {
-                if (temp != null)
-                   return SleepUtils.getScalar(temp, read);
-
                 if (buffer != null)
-                   return SleepUtils.getScalar(buffer.toString());
+                   return BridgeUtilities.getBytesScalar(buffer.toByteArray(), read);
+
+                if (temp != null)
+                   return BridgeUtilities.getBytesScalar(temp, read);
              }
           }
           return SleepUtils.getEmptyScalar();
@@ -1357,7 +1485,12 @@ public class BasicIO implements Loadable, Function
           int           size = BridgeUtilities.getInt(l, 1024 * 32); /* 32K buffer anyone */
           int           last = 0;
 
-          if (a.getReader() != null)
+          if (a instanceof MappedFileObject && a.getReader() != null)
+          {
+             long read = ((MappedFileObject)a).skip(to);
+             return read > 0 ? SleepUtils.getScalar((int)read) : SleepUtils.getEmptyScalar();
+          }
+          else if (a.getReader() != null)
           {
              byte[] temp = new byte[size];
   
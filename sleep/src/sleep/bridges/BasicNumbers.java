@@ -25,6 +25,7 @@ import java.util.*;
 
 import sleep.engine.*;
 import sleep.engine.types.*;
+import sleep.engine.atoms.Fold;
 
 import sleep.interfaces.*;
 import sleep.runtime.*;
@@ -82,6 +83,8 @@ public class BasicNumbers implements Predicate, Operator, Loadable, Function
        temp.put("|", sanitized);
        temp.put("^", sanitized);
        temp.put("&not", sanitized);
+
+       Fold.addBuiltinOperator(sanitized);
  
        // predicates
        temp.put("==", this);
@@ -94,9 +97,40 @@ public class BasicNumbers implements Predicate, Operator, Loadable, Function
 
        // functions
        temp.put("&rand", sanitized);
+       temp.put("&randArray", sanitized);
        temp.put("&srand", sanitized);
     }
 
+    /** returns the random number generator of this script.  each script has its own, so scripts and forks running in
+        different threads don't contend for one.  the generator of a new script or fork is seeded from one shared with
+        the script it was forked from. */
+    private static Random getRandom(ScriptInstance si)
+    {
+       Variable globals = si.getScriptVariables().getGlobalVariables();
+       Scalar   temp    = globals.getScalar("__RANDOM__");
+
+       if (temp != null)
+          return (Random)temp.objectValue();
+
+       Map    meta = si.getMetadata();
+       Random root;
+
+       synchronized (meta)
+       {
+          root = (Random)meta.get("__RANDOM__");
+
+          if (root == null)
+          {
+             root = new Random();
+             meta.put("__RANDOM__", root);
+          }
+       }
+
+       Random r = new Random(root.nextLong());
+       globals.putScalar("__RANDOM__", SleepUtils.getScalar((Object)r));
+       return r;
+    }
+
     public Scalar evaluate(String name, ScriptInstance si, Stack args)
     {
        if (name.equals("&abs")) { return SleepUtils.getScalar(Math.abs(BridgeUtilities.getDouble(args, 0.0))); }
@@ -242,15 +276,39 @@ public class BasicNumbers implements Predicate, Operator, Loadable, Function
        else if (name.equals("&srand"))
        {
           long seed = BridgeUtilities.getLong(args);
+
+          /* seeds this script and the generator that seeds the scripts forked from it after this */
+          si.getScriptVariables().getGlobalVariables().putScalar("__RANDOM__", SleepUtils.getScalar((Object)new Random(seed)));
           si.getMetadata().put("__RANDOM__", new Random(seed));
        }
-       else if (name.equals("&rand"))
+       else if (name.equals("&randArray"))
        {
-          if (si.getMetadata().get("__RANDOM__") == null) 
-          { 
-             si.getMetadata().put("__RANDOM__", new Random()); 
+          int    count = BridgeUtilities.getInt(args, 0);
+          Random r     = getRandom(si);
+          Scalar array = SleepUtils.getArrayScalar();
+
+          if (! args.isEmpty())
+          {
+             int max = BridgeUtilities.getInt(args, 0);
+
+             for (int x = 0; x < count; x++)
+             {
+                array.getArray().push(SleepUtils.getScalar(r.nextInt(max)));
+             }
+          }
+          else
+          {
+             for (int x = 0; x < count; x++)
+             {
+                array.getArray().push(SleepUtils.getScalar(r.nextDouble()));
+             }
           }
-          Random r = (Random)si.getMetadata().get("__RANDOM__");
+
+          return array;
+       }
+       else if (name.equals("&rand"))
+       {
+          Random r = getRandom(si);
 
           if (! args.isEmpty())
           {
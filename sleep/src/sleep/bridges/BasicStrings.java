@@ -24,6 +24,8 @@ package sleep.bridges;
 import java.util.*;
 
 import sleep.engine.*;
+import sleep.engine.types.*;
+import sleep.engine.atoms.Fold;
 import sleep.interfaces.*;
 import sleep.runtime.*;
 
@@ -80,6 +82,7 @@ public class BasicStrings implements Loadable, Predicate
         temp.put("&chr",     new func_chr());
 
         temp.put("&sort",    new func_sort());
+        temp.put("&sortBy",  new func_sortBy());
 
         func_sorters funky = new func_sorters();
         temp.put("&sorta",   funky);
@@ -106,6 +109,11 @@ public class BasicStrings implements Loadable, Predicate
         temp.put("x", new oper_multiply());
         temp.put("cmp", new oper_compare());
         temp.put("<=>", new oper_spaceship());
+
+        Fold.addBuiltinOperator(temp.get("."));
+        Fold.addBuiltinOperator(temp.get("x"));
+        Fold.addBuiltinOperator(temp.get("cmp"));
+        Fold.addBuiltinOperator(temp.get("<=>"));
     }
 
     public boolean decide(String n, ScriptInstance i, Stack l)
@@ -346,7 +354,14 @@ public class BasicStrings implements Loadable, Predicate
     {
         public Scalar evaluate(String n, ScriptInstance i, Stack l)
         {
-           return SleepUtils.getScalar(l.pop().toString().length());
+           Scalar value = (Scalar)l.pop();
+
+           if (value.getActualValue() instanceof BytesValue)
+           {
+              return SleepUtils.getScalar(((BytesValue)value.getActualValue()).getLength());
+           }
+
+           return SleepUtils.getScalar(value.toString().length());
         }
     }
 
@@ -481,29 +496,132 @@ public class BasicStrings implements Loadable, Predicate
         }
     }
 
+    /** sorts an array by the key a function returns for each element.  the function is called once per element, keys
+        that are numbers sort numerically and before the other keys, the other keys sort as strings. */
+    private static class func_sortBy implements Function
+    {
+        public Scalar evaluate(String n, ScriptInstance i, Stack l)
+        {
+           if (l.size() != 2)
+           {
+              throw new IllegalArgumentException("&sortBy requires a function to specify the key to sort the data by");
+           }
+
+           SleepClosure my_func   = BridgeUtilities.getFunction(l, i);
+           ScalarArray  array     = BridgeUtilities.getWorkableArray(l);
+
+           if (my_func == null)
+           {
+              return SleepUtils.getArrayScalar();
+           }
+
+           SortKey keys[] = new SortKey[array.size()];
+           Stack   locals = new Stack();
+
+           Iterator iter = array.scalarIterator();
+           for (int x = 0; x < keys.length; x++)
+           {
+              keys[x]       = new SortKey((Scalar)iter.next());
+
+              locals.push(keys[x].value);
+              Scalar key    = my_func.callClosure("&sortBy", i, locals);
+              locals.clear();
+
+              ScalarType type = key.getActualValue();
+              if (type != null && (type.getType() == IntValue.class || type.getType() == LongValue.class || type.getType() == DoubleValue.class))
+              {
+                 keys[x].numeric = true;
+                 keys[x].decimal = key.doubleValue();
+              }
+              else
+              {
+                 keys[x].text    = key.toString();
+              }
+           }
+
+           sortByKeys(array, keys, new CompareKeys());
+           return SleepUtils.getArrayScalar(array);
+        }
+    }
+
     private static class func_sorters implements Function
     {
         public Scalar evaluate(String n, ScriptInstance i, Stack l)
         {
            ScalarArray  array     = BridgeUtilities.getWorkableArray(l);
 
+           SortKey keys[] = new SortKey[array.size()];
+
+           Iterator iter = array.scalarIterator();
+           for (int x = 0; x < keys.length; x++)
+           {
+              keys[x] = new SortKey((Scalar)iter.next());
+           }
+
            if (n.equals("&sorta"))
            {
-              array.sort(new CompareStrings());
+              for (int x = 0; x < keys.length; x++)
+              {
+                 keys[x].text    = keys[x].value.toString();
+              }
+
+              sortByKeys(array, keys, new CompareStrings());
            }
            else if (n.equals("&sortn"))
            {
-              array.sort(new CompareNumbers());
+              for (int x = 0; x < keys.length; x++)
+              {
+                 keys[x].number  = keys[x].value.longValue();
+              }
+
+              sortByKeys(array, keys, new CompareNumbers());
            }
            else if (n.equals("&sortd"))
            {
-              array.sort(new CompareDoubles());
+              for (int x = 0; x < keys.length; x++)
+              {
+                 keys[x].decimal = keys[x].value.doubleValue();
+              }
+
+              sortByKeys(array, keys, new CompareDoubles());
            }
 
            return SleepUtils.getArrayScalar(array);
         }
     }
 
+    /** an element of an array and the key it's sorted by.  the key is computed once for each element rather than each
+        time two elements are compared. */
+    private static class SortKey
+    {
+        protected Scalar  value;
+        protected long    number;
+        protected double  decimal;
+        protected String  text;
+        protected boolean numeric;
+
+        public SortKey(Scalar _value)
+        {
+           value = _value;
+        }
+    }
+
+    /** sorts the keys (a stable sort) and puts the elements of the array in the same order */
+    private static void sortByKeys(ScalarArray array, SortKey[] keys, Comparator compare)
+    {
+        Arrays.sort(keys, compare);
+
+        while (array.size() > 0)
+        {
+           array.pop();
+        }
+
+        for (int x = 0; x < keys.length; x++)
+        {
+           array.push(keys[x].value);
+        }
+    }
+
     private static class CompareFunction implements Comparator
     {
         protected SleepClosure   func;
@@ -531,10 +649,16 @@ public class BasicStrings implements Loadable, Predicate
     {
         public int compare(Object a, Object b)
         {
-           long aa = ((Scalar)a).longValue();
-           long bb = ((Scalar)b).longValue();
+           long aa = ((SortKey)a).number;
+           long bb = ((SortKey)b).number;
 
-           return (int)(aa - bb);
+           if (aa == bb)
+              return 0;
+
+           if (aa < bb)
+              return -1;
+
+           return 1;
         }
     }
 
@@ -542,24 +666,47 @@ public class BasicStrings implements Loadable, Predicate
     {
         public int compare(Object a, Object b)
         {
-           double aa = ((Scalar)a).doubleValue();
-           double bb = ((Scalar)b).doubleValue();
+           return compareDoubles(((SortKey)a).decimal, ((SortKey)b).decimal);
+        }
+    }
 
-           if (aa == bb)
-              return 0;
+    private static int compareDoubles(double aa, double bb)
+    {
+        if (aa == bb)
+           return 0;
 
-           if (aa < bb)
-              return -1;
+        if (aa < bb)
+           return -1;
 
-           return 1;
-        }
+        return 1;
     }
 
     private static class CompareStrings implements Comparator
     {
         public int compare(Object a, Object b)
         {
-           return a.toString().compareTo(b.toString());
+           return ((SortKey)a).text.compareTo(((SortKey)b).text);
+        }
+    }
+
+    /** numeric keys sort before string keys */
+    private static class CompareKeys implements Comparator
+    {
+        public int compare(Object a, Object b)
+        {
+           SortKey aa = (SortKey)a;
+           SortKey bb = (SortKey)b;
+
+           if (aa.numeric && bb.numeric)
+              return compareDoubles(aa.decimal, bb.decimal);
+
+           if (aa.numeric)
+              return -1;
+
+           if (bb.numeric)
+              return 1;
+
+           return aa.text.compareTo(bb.text);
         }
     }
 
@@ -570,7 +717,13 @@ public class BasicStrings implements Loadable, Predicate
            Scalar left = (Scalar)(l.pop());
            Scalar right = (Scalar)(l.pop());
 
-           if (o.equals("."))
+           if (o.equals(".") && left.getActualValue() instanceof BuilderValue)
+           {
+              Scalar temp = new Scalar();
+              temp.setValue(((BuilderValue)left.getActualValue()).append(right.toString()));
+              return temp;
+           }
+           else if (o.equals("."))
            {
               return SleepUtils.getScalar(left.toString() + right.toString());
            }
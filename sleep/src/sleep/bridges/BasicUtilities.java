@@ -25,6 +25,7 @@ package sleep.bridges;
 import java.util.*;
 
 import sleep.engine.*;
+import sleep.engine.atoms.Fold;
 import sleep.interfaces.*;
 import sleep.runtime.*;
 
@@ -167,11 +168,16 @@ public class BasicUtilities implements Function, Loadable, Predicate
         temp.put("&semaphore", sync);
         temp.put("&acquire",   sync);
         temp.put("&release",   sync);
+        temp.put("&channel",   sync);
+        temp.put("&send",      sync);
+        temp.put("&receive",   sync);
 
         temp.put("&invoke",    this);
         temp.put("&inline",    this);
 
         temp.put("=>",       new HashKeyValueOp());
+
+        Fold.addBuiltinOperator(temp.get("=>"));
     }
 
     private static class SyncPrimitives implements Function 
@@ -193,6 +199,23 @@ public class BasicUtilities implements Function, Loadable, Predicate
              Semaphore sem = (Semaphore)BridgeUtilities.getObject(l);
              sem.V();
           }
+          else if (n.equals("&channel"))
+          {
+             int capacity = BridgeUtilities.getInt(l, 64);
+             return SleepUtils.getScalar(new Channel(capacity));
+          }
+          else if (n.equals("&send"))
+          {
+             Channel chan  = (Channel)BridgeUtilities.getObject(l);
+             Scalar  value = BridgeUtilities.getScalar(l);
+             return SleepUtils.getScalar(chan.send(value, BridgeUtilities.getLong(l, -1)));
+          }
+          else if (n.equals("&receive"))
+          {
+             Channel chan  = (Channel)BridgeUtilities.getObject(l);
+             Scalar  value = chan.receive(BridgeUtilities.getLong(l, -1));
+             return value == null ? SleepUtils.getEmptyScalar() : value;
+          }
 
           return SleepUtils.getEmptyScalar();
        }
@@ -455,7 +478,7 @@ public class BasicUtilities implements Function, Loadable, Predicate
              }             
              else if (type.toString().charAt(0) == 'b')
              {
-                return SleepUtils.getScalar((Object)BridgeUtilities.toByteArrayNoConversion(value.toString()));
+                return SleepUtils.getScalar((Object)BridgeUtilities.toByteArrayNoConversion(value));
              }             
 
              return SleepUtils.getEmptyScalar();
@@ -865,9 +888,9 @@ public class BasicUtilities implements Function, Loadable, Predicate
     {
        if (l.isEmpty() && n.equals("&remove"))
        {
-          Stack iterators = (Stack)(i.getScriptEnvironment().getContextMetadata("iterators"));
+          Stack iterators = i.getScriptEnvironment().getIterators();
 
-          if (iterators == null || iterators.isEmpty())
+          if (iterators.isEmpty())
           {
              throw new RuntimeException("&remove: no active foreach loop to remove element from");
           }
@@ -937,7 +960,18 @@ public class BasicUtilities implements Function, Loadable, Predicate
        else if (n.equals("&inline"))
        {
           SleepClosure c = BridgeUtilities.getFunction(l, i);
-          c.getRunnableCode().evaluate(i.getScriptEnvironment());
+
+          i.getScriptEnvironment().pushSource(c.getRunnableCode());
+
+          try
+          {
+             c.getRunnableCode().evaluate(i.getScriptEnvironment());
+          }
+          finally
+          {
+             i.getScriptEnvironment().popSource();
+          }
+
           return SleepUtils.getEmptyScalar();
        }
        else if (n.equals("&invoke")) 
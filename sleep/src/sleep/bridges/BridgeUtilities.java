@@ -66,6 +66,34 @@ public class BridgeUtilities
       return data;
    }
 
+   /** converts the specified scalar to an array of bytes.  Binary data read by Sleep (see BytesValue) is copied
+       as is, any other value is converted from its string form. */
+   public static byte[] toByteArrayNoConversion(Scalar value)
+   {
+      if (value.getActualValue() instanceof BytesValue)
+      {
+         return ((BytesValue)value.getActualValue()).getBytes();
+      }
+
+      return toByteArrayNoConversion(value.toString());
+   }
+
+   /** wraps data in a string scalar without copying it.  Only for an array the bridge has
+       just filled itself and won't touch again (i.e. a buffer read by &readb), see SleepUtils.getScalar(byte[]). */
+   static Scalar getBytesScalar(byte[] data)
+   {
+      return getBytesScalar(data, data.length);
+   }
+
+   /** wraps the first length bytes of data in a string scalar without copying them, see getBytesScalar(byte[]) */
+   static Scalar getBytesScalar(byte[] data, int length)
+   {
+      Scalar temp = new Scalar();
+      temp.setValue(new BytesValue(data, 0, length));
+
+      return temp;
+   }
+
    /** grab an integer. if the stack is empty 0 will be returned. */
    public static int getInt(Stack arguments)
    {
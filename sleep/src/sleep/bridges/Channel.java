@@ -0,0 +1,165 @@
+package sleep.bridges;
+
+import java.util.*;
+
+import sleep.runtime.*;
+import sleep.engine.types.*;
+
+/** A bounded queue for passing values between scripts running in different threads, i.e. a parent script and its
+    forks.  Values are deep copied when they are sent so the receiver never shares an array or hash with the sender.
+    Nothing is serialized, objects and closures are passed by reference as usual. */
+public class Channel
+{
+   private Scalar queue[];
+   private int    head  = 0;
+   private int    count = 0;
+
+   /** creates a channel that holds up to <var>capacity</var> values */
+   public Channel(int capacity)
+   {
+      queue = new Scalar[Math.max(1, capacity)];
+   }
+
+   /** waits until the condition is met or the timeout (in milliseconds) expires.  a negative timeout waits forever,
+       a timeout of 0 does not wait at all.  returns false if the wait timed out. */
+   private boolean await(boolean full, long timeout) throws InterruptedException
+   {
+      long stop = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+
+      while (full ? count == queue.length : count == 0)
+      {
+         if (timeout == 0)
+         {
+            return false;
+         }
+         else if (timeout < 0)
+         {
+            wait();
+         }
+         else
+         {
+            long left = stop - System.currentTimeMillis();
+
+            if (left <= 0)
+               return false;
+
+            wait(left);
+         }
+      }
+
+      return true;
+   }
+
+   /** places a copy of the value into this channel.  blocks for up to <var>timeout</var> milliseconds while the
+       channel is full (negative blocks until there is room, 0 returns right away).  returns true if the value was
+       sent. */
+   public boolean send(Scalar value, long timeout)
+   {
+      Scalar copy = copy(value, new IdentityHashMap());
+
+      synchronized (this)
+      {
+         try
+         {
+            if (!await(true, timeout))
+               return false;
+
+            queue[(head + count) % queue.length] = copy;
+            count++;
+            notifyAll();
+            return true;
+         }
+         catch (InterruptedException ex)
+         {
+            return false;
+         }
+      }
+   }
+
+   /** removes the next value from this channel.  blocks for up to <var>timeout</var> milliseconds while the channel
+       is empty (negative blocks until a value arrives, 0 returns right away).  returns null if nothing was received. */
+   public Scalar receive(long timeout)
+   {
+      synchronized (this)
+      {
+         try
+         {
+            if (!await(false, timeout))
+               return null;
+
+            Scalar value = queue[head];
+            queue[head] = null;
+            head = (head + 1) % queue.length;
+            count--;
+            notifyAll();
+            return value;
+         }
+         catch (InterruptedException ex)
+         {
+            return null;
+         }
+      }
+   }
+
+   /** returns the number of values waiting in this channel */
+   public synchronized int size()
+   {
+      return count;
+   }
+
+   /** makes a deep copy of the arrays and hashes in the specified value.  seen maps containers already copied to
+       their copies so shared and circular references survive the trip. */
+   private static Scalar copy(Scalar value, Map seen)
+   {
+      if (value.getArray() != null)
+      {
+         Scalar temp = (Scalar)seen.get(value.getArray());
+
+         if (temp == null)
+         {
+            temp = SleepUtils.getArrayScalar();
+            seen.put(value.getArray(), temp);
+
+            Iterator i = value.getArray().scalarIterator();
+            while (i.hasNext())
+            {
+               temp.getArray().push(copy((Scalar)i.next(), seen));
+            }
+         }
+
+         return SleepUtils.getArrayScalar(temp.getArray());
+      }
+      else if (value.getHash() != null)
+      {
+         Scalar temp = (Scalar)seen.get(value.getHash());
+
+         if (temp == null)
+         {
+            temp = value.getHash() instanceof OrderedHashContainer ? SleepUtils.getOrderedHashScalar() : SleepUtils.getHashScalar();
+            seen.put(value.getHash(), temp);
+
+            Iterator i = value.getHash().getData().entrySet().iterator();
+            while (i.hasNext())
+            {
+               Map.Entry entry = (Map.Entry)i.next();
+
+               if (!SleepUtils.isEmptyScalar((Scalar)entry.getValue()))
+               {
+                  Scalar key = SleepUtils.getScalar(entry.getKey().toString());
+                  temp.getHash().getAt(key).setValue(copy((Scalar)entry.getValue(), seen));
+               }
+            }
+         }
+
+         return SleepUtils.getHashScalar(temp.getHash());
+      }
+
+      return SleepUtils.getScalar(value);
+   }
+
+   /** returns a nice string representation of this channel */
+   public String toString()
+   {
+      return "[Channel: " + size() + "/" + queue.length + "]";
+   }
+}
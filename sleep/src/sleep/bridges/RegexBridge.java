@@ -38,7 +38,7 @@ import sleep.parser.ParserConfig;
 /** Provides a bridge between Java's regex API and sleep.  Rock on */
 public class RegexBridge implements Loadable
 {
-    private static Map patternCache = Collections.synchronizedMap(new Cache(Integer.parseInt(System.getProperty("sleep.pattern_cache_size", "256"))));
+    private static StripedCache patternCache = new StripedCache(Integer.parseInt(System.getProperty("sleep.pattern_cache_size", "256")));
 
     private static class Cache extends LinkedHashMap
     {
@@ -60,6 +60,26 @@ public class RegexBridge implements Loadable
     {
        ParserConfig.addKeyword("ismatch");
        ParserConfig.addKeyword("hasmatch");
+
+       ParserConfig.addPatternParameter("ismatch", 1);
+       ParserConfig.addPatternParameter("hasmatch", 1);
+       ParserConfig.addPatternParameter("&split", 0);
+       ParserConfig.addPatternParameter("&splitIter", 0);
+       ParserConfig.addPatternParameter("&matches", 1);
+       ParserConfig.addPatternParameter("&replace", 1);
+       ParserConfig.addPatternParameter("&find", 1);
+    }
+
+    /** returns the compiled pattern for the specified scalar.  pattern literals compiled by the code generator are
+        used as is, anything else goes through the pattern cache */
+    public static Pattern getPattern(Scalar pattern)
+    {
+       if (pattern.getActualValue() instanceof PatternValue)
+       {
+          return ((PatternValue)pattern.getActualValue()).getPattern();
+       }
+
+       return getPattern(pattern.toString());
     }
 
     private static Pattern getPattern(String pattern)
@@ -96,6 +116,7 @@ public class RegexBridge implements Loadable
         // functions
         temp.put("&matched", matcher);
         temp.put("&split", new split());
+        temp.put("&splitIter", new split());
         temp.put("&join",  new join());
         temp.put("&matches", new getMatches());
         temp.put("&replace", new rreplace());
@@ -107,7 +128,7 @@ public class RegexBridge implements Loadable
        public Scalar evaluate(String n, ScriptInstance i, Stack l)
        {
           String string = BridgeUtilities.getString(l, "");
-          String patterns = BridgeUtilities.getString(l, "");
+          Scalar patterns = BridgeUtilities.getScalar(l);
 
           Pattern pattern  = RegexBridge.getPattern(patterns);
           Matcher matchit  = pattern.matcher(string);
@@ -180,7 +201,7 @@ public class RegexBridge implements Loadable
           Scalar bb = (Scalar)l.pop(); // PATTERN
           Scalar aa = (Scalar)l.pop(); // TEXT TO MATCH AGAINST
 
-          Pattern pattern = RegexBridge.getPattern(bb.toString());
+          Pattern pattern = RegexBridge.getPattern(bb);
 
           Scalar  container = null;
           Matcher matcher   = null;
@@ -248,7 +269,7 @@ public class RegexBridge implements Loadable
        public Scalar evaluate(String n, ScriptInstance i, Stack l)
        {
           String a = ((Scalar)l.pop()).toString();
-          String b = ((Scalar)l.pop()).toString();
+          Scalar b = (Scalar)l.pop();
           int    c = BridgeUtilities.getInt(l, -1);
           int    d = BridgeUtilities.getInt(l, c);
 
@@ -279,19 +300,222 @@ public class RegexBridge implements Loadable
        }
     }
 
+    /** returns the text matched by a regex made up of only literal characters, null if the regex is anything more */
+    private static String getLiteral(String regex)
+    {
+       StringBuffer literal = new StringBuffer(regex.length());
+
+       for (int x = 0; x < regex.length(); x++)
+       {
+          char temp = regex.charAt(x);
+
+          if (temp == '\\' && (x + 1) < regex.length())
+          {
+             temp = regex.charAt(++x);
+
+             if (temp == 't')
+             {
+                literal.append('\t');
+             }
+             else if (temp == 'n')
+             {
+                literal.append('\n');
+             }
+             else if (temp == 'r')
+             {
+                literal.append('\r');
+             }
+             else if (Character.isLetterOrDigit(temp))
+             {
+                return null; /* a character class, back reference, or something like it */
+             }
+             else
+             {
+                literal.append(temp);
+             }
+          }
+          else if ("\\[](){}.*+?^$|".indexOf(temp) > -1)
+          {
+             return null;
+          }
+          else
+          {
+             literal.append(temp);
+          }
+       }
+
+       return literal.length() == 0 ? null : literal.toString();
+    }
+
+    /** Splits text one field at a time with the same results as Pattern.split.  Delimiters made up of only literal
+        characters are found with indexOf rather than a regex. */
+    private static class SplitIterator implements Iterator
+    {
+       protected String  text;
+       protected String  literal;
+       protected Matcher matcher;
+       protected int     limit;
+
+       protected int     index   = 0;     /* start of the next field */
+       protected int     fields  = 0;     /* number of fields split off so far */
+       protected boolean matched = false; /* true once a delimiter was found */
+       protected boolean done    = false;
+
+       protected String  next      = null;
+       protected String  lookahead = null;
+       protected int     empties   = 0;   /* empty fields held back until we know they are not trailing */
+
+       public SplitIterator(Pattern pattern, String _text, int _limit)
+       {
+          text    = _text;
+          limit   = _limit;
+          literal = getLiteral(pattern.pattern());
+
+          if (literal == null)
+             matcher = pattern.matcher(text);
+       }
+
+       /** returns the next field without regard to trailing empty fields, null when there are no more */
+       private String nextField()
+       {
+          if (done)
+             return null;
+
+          fields++;
+
+          if (limit <= 0 || fields < limit)
+          {
+             int start, end;
+
+             if (literal != null)
+             {
+                start = text.indexOf(literal, index);
+                end   = start + literal.length();
+             }
+             else
+             {
+                start = -1;
+                end   = -1;
+
+                while (matcher.find())
+                {
+                   /* a zero-width match at the beginning never produces an empty leading field */
+                   if (index == 0 && matcher.start() == 0 && matcher.end() == 0)
+                      continue;
+
+                   start = matcher.start();
+                   end   = matcher.end();
+                   break;
+                }
+             }
+
+             if (start > -1)
+             {
+                String field = text.substring(index, start);
+                index   = end;
+                matched = true;
+                return field;
+             }
+          }
+
+          done = true;
+          return text.substring(index);
+       }
+
+       public boolean hasNext()
+       {
+          if (next != null)
+          {
+             return true;
+          }
+          else if (empties > 0)
+          {
+             empties--;
+             next = "";
+             return true;
+          }
+          else if (lookahead != null)
+          {
+             next      = lookahead;
+             lookahead = null;
+             return true;
+          }
+
+          String field = nextField();
+
+          if (field == null)
+             return false;
+
+          if (field.length() > 0 || limit != 0 || !matched)
+          {
+             next = field;
+             return true;
+          }
+
+          /* a limit of 0 drops trailing empty fields, hold on to these until we see a field that isn't empty */
+
+          int run = 1;
+
+          while ((field = nextField()) != null && field.length() == 0)
+          {
+             run++;
+          }
+
+          if (field == null)
+             return false;
+
+          empties   = run - 1;
+          lookahead = field;
+          next      = "";
+          return true;
+       }
+
+       public Object next()
+       {
+          if (!hasNext())
+             throw new NoSuchElementException();
+
+          String temp = next;
+          next = null;
+          return temp;
+       }
+
+       public void remove()
+       {
+          throw new UnsupportedOperationException("remove");
+       }
+    }
+
     private static class split implements Function
     {
        public Scalar evaluate(String n, ScriptInstance i, Stack l)
        {
-          String a = ((Scalar)l.pop()).toString();
+          Scalar a = (Scalar)l.pop();
           String b = ((Scalar)l.pop()).toString();
+          int    c = BridgeUtilities.getInt(l, 0);
 
           Pattern pattern  = RegexBridge.getPattern(a);
 
-          String results[] = l.isEmpty() ? pattern.split(b) : pattern.split(b, BridgeUtilities.getInt(l, 0));
-          
+          if (n.equals("&splitIter"))
+          {
+             return SleepUtils.getScalar(new SplitIterator(pattern, b, c));
+          }
+
           Scalar array = SleepUtils.getArrayScalar();
 
+          if (getLiteral(pattern.pattern()) != null)
+          {
+             Iterator iter = new SplitIterator(pattern, b, c);
+             while (iter.hasNext())
+             {
+                array.getArray().push(SleepUtils.getScalar((String)iter.next()));
+             }
+
+             return array;
+          }
+
+          String results[] = pattern.split(b, c);
+
           for (int x = 0; x < results.length; x++)
           {
              array.getArray().push(SleepUtils.getScalar(results[x]));
@@ -308,17 +532,26 @@ public class RegexBridge implements Loadable
           String      a = ((Scalar)l.pop()).toString();
           Iterator    i = BridgeUtilities.getIterator(l, script);
 
-          StringBuffer result = new StringBuffer();
+          /* grab the strings first so we know how big the result will be */
+
+          List parts = new ArrayList();
+          int  size  = 0;
 
-          if (i.hasNext())
+          while (i.hasNext())
           {
-             result.append(i.next().toString());
+             String temp = i.next().toString();
+             parts.add(temp);
+             size += temp.length();
           }
 
-          while (i.hasNext())
+          StringBuffer result = new StringBuffer(size + (a.length() * Math.max(0, parts.size() - 1)));
+
+          for (int x = 0; x < parts.size(); x++)
           {
-             result.append(a);
-             result.append(i.next().toString());
+             if (x > 0)
+                result.append(a);
+
+             result.append((String)parts.get(x));
           }
 
           return SleepUtils.getScalar(result.toString());
@@ -330,7 +563,7 @@ public class RegexBridge implements Loadable
        public Scalar evaluate(String n, ScriptInstance script, Stack l)
        {
           String a = BridgeUtilities.getString(l, ""); // current
-          String b = BridgeUtilities.getString(l, ""); // old
+          Scalar b = BridgeUtilities.getScalar(l);     // old
           String c = BridgeUtilities.getString(l, ""); // new
           int    d = BridgeUtilities.getInt(l, -1);
 
@@ -46,10 +46,10 @@ public class SleepClosure implements Function, Runnable
     /** the owning script associated with this sleep closure */
     ScriptInstance      owner;
 
-    /** the saved context of this closure */
+    /** the saved context of this closure, null until the closure yields or is saved as a continuation */
     Stack             context;
 
-    /** the meta data for this closure context */
+    /** the meta data for this closure context, null until something is stored in it */
     HashMap          metadata; 
 
     /** the closure variables referenced by this closure */
@@ -58,12 +58,17 @@ public class SleepClosure implements Function, Runnable
     /** put some value into the metadata store associated with this closure. */
     public void putMetadata(Object key, Object value)
     {
+       if (metadata == null)
+          metadata = new HashMap();
+
        metadata.put(key, value);
     }
 
     /** obtain a key from the metadata store associated with this closure */
     public Object getAndRemoveMetadata(Object key, Object defaultv)
     {
+       if (metadata == null) { return defaultv; }
+
        Object temp = metadata.remove(key);
        if (temp == null) { return defaultv; }
        return temp;
@@ -72,10 +77,13 @@ public class SleepClosure implements Function, Runnable
     /** saves the top level context; may throw an exception if an error is detected... be sure to move critical cleanup prior to this function. */
     private void saveToplevelContext(Stack _context, LinkedList localLevel)
     {
-       if (!_context.isEmpty())
+       if (_context != null && !_context.isEmpty())
        {
           _context.push(localLevel); /* push the local vars on to the top of the context stack,
                                         this better be popped before use!!! */
+          if (context == null)
+             context = new Stack();
+
           context.push(_context);
        }
        else if (localLevel.size() != 1)
@@ -84,12 +92,12 @@ public class SleepClosure implements Function, Runnable
        }
     }
 
-    /** returns the top most context stack... */
+    /** returns the top most context stack, null if there is no saved context to restore */
     private Stack getToplevelContext()
     {
-       if (context.isEmpty())
+       if (context == null || context.isEmpty())
        {
-          return new Stack();
+          return null;
        }
        return (Stack)context.pop();
     }
@@ -116,18 +124,25 @@ public class SleepClosure implements Function, Runnable
     /** Creates a new Sleep Closure, with a brand new set of internal variables.  Don't be afraid, you can call this constructor from your code. */
     public SleepClosure(ScriptInstance si, Block _code)
     {
-       this(si, _code, si.getScriptVariables().getGlobalVariables().createInternalVariableContainer());
+       this(si, _code, null);
     }
   
-    /** Creates a new Sleep Closure that uses the specified variable container for its internal variables */
+    /** Creates a new Sleep Closure that uses the specified variable container for its internal variables.  A null
+        container gives the closure its own, which isn't created until a variable other than $this is stored in it. */
     public SleepClosure(ScriptInstance si, Block _code, Variable _var)
     {
        code      = _code;
        owner     = si;
-       context   = new Stack();
-       metadata  = new HashMap();
 
-       _var.putScalar("$this", SleepUtils.getScalar(this));
+       if (_var == null)
+       {
+          _var = new ClosureVariables(this, si.getScriptVariables().getGlobalVariables());
+       }
+       else
+       {
+          _var.putScalar("$this", SleepUtils.getScalar(this));
+       }
+
        setVariables(_var);
 
        ccount = (ccount + 1) % Short.MAX_VALUE;
@@ -135,6 +150,95 @@ public class SleepClosure implements Function, Runnable
        id = ccount;
     }
 
+    /** the variables of a closure.  $this is answered without a container, the container for the other variables is
+        created by the global variables the first time one is stored */
+    private static class ClosureVariables implements Variable
+    {
+       protected SleepClosure       closure;
+       protected Scalar             self    = null;
+       protected boolean            removed = false;  /* true if $this was removed */
+       protected Variable           values  = null;
+       protected transient Variable factory;          /* the global variables, creates the container */
+
+       public ClosureVariables(SleepClosure _closure, Variable _factory)
+       {
+          closure = _closure;
+          factory = _factory;
+       }
+
+       /** returns the container for variables other than $this, creating it if necessary */
+       private Variable values()
+       {
+          if (values == null)
+             values = factory != null ? factory.createInternalVariableContainer() : new DefaultVariable();
+
+          return values;
+       }
+
+       public boolean scalarExists(String key)
+       {
+          if ("$this".equals(key))
+             return !removed;
+
+          return values != null && values.scalarExists(key);
+       }
+
+       public Scalar getScalar(String key)
+       {
+          if ("$this".equals(key))
+          {
+             if (!removed && self == null)
+                self = SleepUtils.getScalar(closure);
+
+             return self;
+          }
+
+          return values != null ? values.getScalar(key) : null;
+       }
+
+       public Scalar putScalar(String key, Scalar value)
+       {
+          if ("$this".equals(key))
+          {
+             Scalar old = getScalar(key);
+             self    = value;
+             removed = false;
+             return old;
+          }
+
+          return values().putScalar(key, value);
+       }
+
+       public void removeScalar(String key)
+       {
+          if ("$this".equals(key))
+          {
+             self    = null;
+             removed = true;
+          }
+          else if (values != null)
+          {
+             values.removeScalar(key);
+          }
+       }
+
+       public Variable createLocalVariableContainer()
+       {
+          return values().createLocalVariableContainer();
+       }
+
+       public Variable createInternalVariableContainer()
+       {
+          return values().createInternalVariableContainer();
+       }
+
+       private void writeObject(ObjectOutputStream out) throws IOException
+       {
+          values(); /* the global variables aren't serialized, create the container while they're known */
+          out.defaultWriteObject();
+       }
+    }
+
     /** Returns the owning script instance */
     public ScriptInstance getOwner()
     {
@@ -201,6 +305,31 @@ public class SleepClosure implements Function, Runnable
 
     /** Evaluates the closure, use callClosure instead. */
     public Scalar evaluate(String message, ScriptInstance si, Stack locals)
+    {
+       ScriptEnvironment env  = si.getScriptEnvironment();
+       int               mark = env.markFrame();
+
+       Scalar temp = invoke(message, si, locals);
+
+       /* a closure that returns f(...) leaves the call to us.  each call is made from here so a chain of
+          them (i.e. recursion) runs in constant stack space */
+       while (env.isTailCall())
+       {
+          SleepClosure next      = (SleepClosure)env.getTailFunction();
+          String       name      = env.getTailName();
+          Stack        arguments = env.getTailArguments();
+
+          env.clearReturn();
+          env.cleanFrame(mark);
+
+          temp = next.invoke(name, si, arguments);
+       }
+
+       return temp;
+    }
+
+    /** evaluates this closure once, a tail call it makes is left flagged in the script environment */
+    private Scalar invoke(String message, ScriptInstance si, Stack locals)
     {
        if (owner == null) { owner = si; }
 
@@ -218,7 +347,7 @@ public class SleepClosure implements Function, Runnable
 
           vars.pushClosureLevel(getVariables()); 
 
-          if (toplevel.isEmpty()) /* a normal closure call */
+          if (toplevel == null) /* a normal closure call */
           {
              vars.beginToplevel(new LinkedList());
              vars.pushLocalLevel();
@@ -240,18 +369,31 @@ public class SleepClosure implements Function, Runnable
           //
           // call the function, save the scalar that was returned. 
           //
-          if (toplevel.isEmpty())
+          Block caller = env.getClosureBody();
+          env.setClosureBody(code);
+          env.pushSource(code);
+
+          try
           {
-             temp = code.evaluate(env);
+             if (toplevel == null)
+             {
+                temp = code.evaluate(env);
+             }
+             else
+             {
+                temp = env.evaluateOldContext();
+             }
           }
-          else
+          finally
           {
-             temp = env.evaluateOldContext();
+             env.popSource();
+             env.setClosureBody(caller);
           }
 
           LinkedList phear = vars.leaveToplevel();        /* this will simultaneously save and remove all local scopes associated with
                                                              the current closure context.  Very sexy */
           vars.popClosureLevel();                         /* still have to do this manually, one day I need to refactor this state saving stuff */
+          metadata = env.getContextMetadata();            /* the script environment creates the metadata if this context stores any */
 
           if (si.getScriptEnvironment().isCallCC())
           {
@@ -283,7 +425,7 @@ public class SleepClosure implements Function, Runnable
        id        = in.readInt();
        code      = (Block)in.readObject();
        context   = (Stack)in.readObject();
-       metadata  = new HashMap();
+       metadata  = null;
 /*       metadata  = (HashMap)in.readObject(); */
        variables = (Variable)in.readObject();
        owner     = null;
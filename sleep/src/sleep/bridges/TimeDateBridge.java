@@ -16,12 +16,59 @@ public class TimeDateBridge implements Loadable
       script.getScriptEnvironment().getEnvironment().put("&ticks",          new ticks());
       script.getScriptEnvironment().getEnvironment().put("&formatDate",     new formatDate());
       script.getScriptEnvironment().getEnvironment().put("&parseDate",      new parseDate());
+      script.getScriptEnvironment().getEnvironment().put("&isoDate",        new isoDate());
    }
 
    public void scriptUnloaded(ScriptInstance script)
    {
    }
 
+   /** SimpleDateFormat is expensive to create and not thread-safe, so each thread keeps its own small cache of
+       formats keyed by pattern and locale */
+   private static ThreadLocal formatCache = new FormatCache();
+
+   private static class FormatCache extends ThreadLocal
+   {
+      protected Object initialValue()
+      {
+         return new Formats();
+      }
+   }
+
+   private static class Formats extends LinkedHashMap
+   {
+      public Formats()
+      {
+         super(11, 0.75f, true);
+      }
+
+      protected boolean removeEldestEntry(Map.Entry eldest)
+      {
+         return (size() > 32);
+      }
+   }
+
+   private static SimpleDateFormat getFormat(String pattern)
+   {
+      Locale locale  = Locale.getDefault();
+      Map    formats = (Map)formatCache.get();
+      String key     = locale + " " + pattern;
+
+      SimpleDateFormat format = (SimpleDateFormat)formats.get(key);
+
+      if (format == null)
+      {
+         format = new SimpleDateFormat(pattern, locale);
+         formats.put(key, format);
+      }
+
+      /* a cached format keeps the time zone it was created with (or the one a parse last set), so catch it
+         up with the current default before handing it out */
+      format.setTimeZone(TimeZone.getDefault());
+
+      return format;
+   }
+
    private static class formatDate implements Function
    {
       public Scalar evaluate(String f, ScriptInstance si, Stack locals)
@@ -33,7 +80,7 @@ public class TimeDateBridge implements Loadable
 
          String b = locals.pop().toString();
 
-         SimpleDateFormat format = new SimpleDateFormat(b);
+         SimpleDateFormat format = getFormat(b);
          Date             adate  = new Date(a);
 
          return SleepUtils.getScalar(format.format(adate, new StringBuffer(), new FieldPosition(0)).toString());
@@ -47,13 +94,80 @@ public class TimeDateBridge implements Loadable
          String a = locals.pop().toString();
          String b = locals.pop().toString();
 
-         SimpleDateFormat format = new SimpleDateFormat(a);
+         SimpleDateFormat format = getFormat(a);
          Date             pdate  = format.parse(b, new ParsePosition(0));
 
          return SleepUtils.getScalar(pdate.getTime());
       }
    }
 
+   /** formats a time in milliseconds as an ISO-8601 UTC timestamp i.e. 2009-04-30T17:05:09.123Z without going
+       through a Calendar */
+   private static class isoDate implements Function
+   {
+      private static void pad(StringBuffer buffer, long value, int digits)
+      {
+         String temp = Long.toString(value);
+
+         for (int x = temp.length(); x < digits; x++)
+         {
+            buffer.append('0');
+         }
+
+         buffer.append(temp);
+      }
+
+      public Scalar evaluate(String f, ScriptInstance si, Stack locals)
+      {
+         long ticks = BridgeUtilities.getLong(locals, System.currentTimeMillis());
+
+         long days  = ticks / 86400000L;
+         long time  = ticks % 86400000L;
+
+         if (time < 0)
+         {
+            days--;
+            time += 86400000L;
+         }
+
+         /* civil date from days since the epoch, see Howard Hinnant's date algorithms */
+         long z     = days + 719468;
+         long era   = (z >= 0 ? z : z - 146096) / 146097;
+         long doe   = z - era * 146097;
+         long yoe   = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+         long doy   = doe - (365 * yoe + yoe / 4 - yoe / 100);
+         long mp    = (5 * doy + 2) / 153;
+         long day   = doy - (153 * mp + 2) / 5 + 1;
+         long month = mp < 10 ? mp + 3 : mp - 9;
+         long year  = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+         StringBuffer buffer = new StringBuffer(24);
+
+         if (year < 0)
+         {
+            buffer.append('-');
+            year = -year;
+         }
+
+         pad(buffer, year, 4);
+         buffer.append('-');
+         pad(buffer, month, 2);
+         buffer.append('-');
+         pad(buffer, day, 2);
+         buffer.append('T');
+         pad(buffer, time / 3600000L, 2);
+         buffer.append(':');
+         pad(buffer, (time / 60000L) % 60, 2);
+         buffer.append(':');
+         pad(buffer, (time / 1000L) % 60, 2);
+         buffer.append('.');
+         pad(buffer, time % 1000L, 3);
+         buffer.append('Z');
+
+         return SleepUtils.getScalar(buffer.toString());
+      }
+   }
+
    private static class ticks implements Function
    {
       public Scalar evaluate(String f, ScriptInstance si, Stack locals)
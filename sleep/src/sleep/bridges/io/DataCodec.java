@@ -0,0 +1,223 @@
+package sleep.bridges.io;
+
+import java.util.*;
+import java.nio.*;
+
+import sleep.engine.StripedCache;
+import sleep.runtime.*;
+
+/** A DataPattern compiled into a flat plan of fixed size fields.  A codec reads and writes a whole record against a
+    ByteBuffer at once, the I/O functions use it for any pattern made up only of numbers, characters, and padding.
+    Patterns with strings, objects, mark/reset, or a * count do not have a codec. */
+public class DataCodec
+{
+   protected char      value[];
+   protected int       count[];
+   protected ByteOrder order[];
+   protected int       size;
+
+   private static final Object       NO_CODEC   = new Object();
+   private static final StripedCache codecCache = new StripedCache(Integer.parseInt(System.getProperty("sleep.codec_cache_size", "256")));
+
+   /** returns the codec for the specified format or null if the format can not be handled by a codec */
+   public static DataCodec Compile(String format)
+   {
+      Object temp = codecCache.get(format);
+
+      if (temp == null)
+      {
+         temp = Compile(DataPattern.Parse(format));
+         codecCache.put(format, temp == null ? NO_CODEC : temp);
+      }
+
+      return temp == NO_CODEC ? null : (DataCodec)temp;
+   }
+
+   private static DataCodec Compile(DataPattern pattern)
+   {
+      int fields = 0;
+      int size   = 0;
+
+      for (DataPattern temp = pattern; temp != null; temp = temp.next)
+      {
+         switch (temp.value)
+         {
+            case 'b': case 'B': case 'C': case 'c': case 's': case 'S':
+            case 'i': case 'I': case 'f': case 'd': case 'l': case 'x':
+               break;
+            default:
+               return null;
+         }
+
+         if (temp.count < 0)
+            return null;
+
+         fields++;
+         size += temp.count * temp.size;
+      }
+
+      DataCodec codec = new DataCodec();
+      codec.value = new char[fields];
+      codec.count = new int[fields];
+      codec.order = new ByteOrder[fields];
+      codec.size  = size;
+
+      int x = 0;
+      for (DataPattern temp = pattern; temp != null; temp = temp.next, x++)
+      {
+         codec.value[x] = temp.value;
+         codec.count[x] = temp.count;
+         codec.order[x] = temp.order;
+      }
+
+      return codec;
+   }
+
+   /** returns the number of bytes in one record */
+   public int getSize()
+   {
+      return size;
+   }
+
+   /** decodes each complete field within the first <var>length</var> bytes of the buffer and pushes its value
+       onto the array.  decoding stops at the first field that does not fit. */
+   public void decode(ByteBuffer buffer, int length, ScalarArray array)
+   {
+      int pos = 0;
+
+      for (int x = 0; x < value.length; x++)
+      {
+         buffer.order(order[x]);
+
+         for (int z = 0; z < count[x]; z++)
+         {
+            Scalar temp;
+
+            switch (value[x])
+            {
+               case 'x':
+                 pos = Math.min(pos + 1, length);
+                 continue;
+               case 'C':
+                 if (pos + 1 > length) return;
+                 temp = SleepUtils.getScalar((char)buffer.get(pos) + "");
+                 pos += 1;
+                 break;
+               case 'c':
+                 if (pos + 2 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getChar(pos) + "");
+                 pos += 2;
+                 break;
+               case 'b':
+                 if (pos + 1 > length) return;
+                 temp = SleepUtils.getScalar((int)buffer.get(pos));
+                 pos += 1;
+                 break;
+               case 'B':
+                 if (pos + 1 > length) return;
+                 temp = SleepUtils.getScalar((int)buffer.get(pos) & 0x000000FF);
+                 pos += 1;
+                 break;
+               case 's':
+                 if (pos + 2 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getShort(pos));
+                 pos += 2;
+                 break;
+               case 'S':
+                 if (pos + 2 > length) return;
+                 temp = SleepUtils.getScalar((int)buffer.getShort(pos) & 0x0000FFFF);
+                 pos += 2;
+                 break;
+               case 'i':
+                 if (pos + 4 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getInt(pos));
+                 pos += 4;
+                 break;
+               case 'I':
+                 if (pos + 4 > length) return;
+                 temp = SleepUtils.getScalar((long)buffer.getInt(pos) & 0x00000000FFFFFFFFL);
+                 pos += 4;
+                 break;
+               case 'f':
+                 if (pos + 4 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getFloat(pos));
+                 pos += 4;
+                 break;
+               case 'd':
+                 if (pos + 8 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getDouble(pos));
+                 pos += 8;
+                 break;
+               default: /* 'l' */
+                 if (pos + 8 > length) return;
+                 temp = SleepUtils.getScalar(buffer.getLong(pos));
+                 pos += 8;
+            }
+
+            array.push(temp);
+         }
+      }
+   }
+
+   /** encodes values popped off of the argument stack into the buffer.  encoding stops when the arguments run out.
+       returns false if a value could not be encoded, the buffer position marks the bytes encoded up to that point. */
+   public boolean encode(ByteBuffer buffer, Stack arguments)
+   {
+      try
+      {
+         for (int x = 0; x < value.length; x++)
+         {
+            buffer.order(order[x]);
+
+            for (int z = 0; z < count[x] && !arguments.isEmpty(); z++)
+            {
+               if (value[x] == 'x')
+               {
+                  buffer.put((byte)0);
+                  continue;
+               }
+
+               Scalar temp = (Scalar)arguments.pop();
+
+               switch (value[x])
+               {
+                  case 'c':
+                    buffer.putChar(temp.toString().charAt(0));
+                    break;
+                  case 'C':
+                    buffer.put((byte)temp.toString().charAt(0));
+                    break;
+                  case 'b':
+                  case 'B':
+                    buffer.put((byte)temp.intValue());
+                    break;
+                  case 's':
+                  case 'S':
+                    buffer.putShort((short)temp.intValue());
+                    break;
+                  case 'i':
+                    buffer.putInt(temp.intValue());
+                    break;
+                  case 'I':
+                    buffer.putInt((int)temp.longValue());
+                    break;
+                  case 'f':
+                    buffer.putFloat((float)temp.doubleValue());
+                    break;
+                  case 'd':
+                    buffer.putDouble(temp.doubleValue());
+                    break;
+                  default: /* 'l' */
+                    buffer.putLong(temp.longValue());
+               }
+            }
+         }
+      }
+      catch (Exception ex)
+      {
+         return false;
+      }
+
+      return true;
+   }
+}
@@ -3,7 +3,10 @@ package sleep.bridges.io;
 import java.util.*;
 import java.nio.*;
 
-/** A DataPattern represents a data format for Sleep's IO functions. */
+import sleep.engine.StripedCache;
+
+/** A DataPattern represents a data format for Sleep's IO functions.  Parsed patterns are cached and shared between
+    threads, treat them as read-only. */
 public class DataPattern
 {
    public DataPattern next  = null;
@@ -12,7 +15,7 @@ public class DataPattern
    public int         size  = 0;
    public ByteOrder   order = ByteOrder.BIG_ENDIAN;
 
-   private static HashMap patternCache = new HashMap();
+   private static final StripedCache patternCache = new StripedCache(Integer.parseInt(System.getProperty("sleep.codec_cache_size", "256")));
 
    public static int EstimateSize(String format)
    {
@@ -33,8 +36,10 @@ public class DataPattern
 
    public static DataPattern Parse(String format)
    {
-      if (patternCache.get(format) != null)
-          return (DataPattern)patternCache.get(format);
+      DataPattern cached = (DataPattern)patternCache.get(format);
+
+      if (cached != null)
+          return cached;
 
       DataPattern head   = null, temp = null;
       StringBuffer count = null;
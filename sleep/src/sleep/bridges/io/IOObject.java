@@ -39,6 +39,7 @@ public class IOObject
 
    protected Thread           thread  = null;
    protected Scalar           token   = null;
+   private   Boolean          streamable = null; /* null until printLineDescribed checks for overridden print methods */
 
    /** return the actual source of this IO for scripters to query using HOES */
    public Object getSource()
@@ -351,6 +352,51 @@ public class IOObject
       print(text + lineSeparator);
    }
 
+   /** Prints out the description of a value (see SleepUtils.describe) with a newline character appended.  The
+       description is written to the stream in 64K pieces as it is generated, so a large array or hash is never held
+       in memory as one string.  Nothing is printed if a smaller value can't be described.  If a subclass overrides
+       printLine or print the description is built as a string and passed to printLine instead. */
+   public void printLineDescribed(Scalar value)
+   {
+      if (writeru == null || !isStreamable())
+      {
+         printLine(SleepUtils.describe(value));
+         return;
+      }
+
+      try
+      {
+         Writer buffer = new BufferedWriter(writeru, 65536);
+         SleepUtils.describe(buffer, value);
+         buffer.write(lineSeparator, 0, lineSeparator.length());
+         buffer.flush();
+      }
+      catch (IOException ex)
+      {
+         close();
+      }
+   }
+
+   /** true if this object prints with the printLine and print methods defined here */
+   private boolean isStreamable()
+   {
+      if (streamable == null)
+      {
+         try
+         {
+            Class[] args = new Class[] { String.class };
+            streamable = Boolean.valueOf(getClass().getMethod("printLine", args).getDeclaringClass() == IOObject.class &&
+                                         getClass().getMethod("print", args).getDeclaringClass() == IOObject.class);
+         }
+         catch (NoSuchMethodException ex)
+         {
+            streamable = Boolean.FALSE;
+         }
+      }
+
+      return streamable.booleanValue();
+   }
+
    /** Prints out a line of text with no newline character appended */
    public void print(String text)
    {
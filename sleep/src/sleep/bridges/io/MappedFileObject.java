@@ -0,0 +1,299 @@
+package sleep.bridges.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import sleep.bridges.BridgeUtilities;
+import sleep.runtime.ScriptEnvironment;
+
+/** A read-only file handle backed by a memory mapped copy of the file.  Reads copy straight out of the mapping,
+    skipping and seeking move a pointer, and lines are decoded directly from the mapped bytes.  Files larger than
+    a single mapping are mapped in segments. */
+public class MappedFileObject extends FileObject
+{
+   /** size of one mapped segment, 1GB */
+   private static final int  SEGMENT_SHIFT = 30;
+   private static final long SEGMENT_MASK  = (1L << SEGMENT_SHIFT) - 1;
+
+   protected MappedInputStream mapped   = null;
+   protected String            encoding = null;
+
+   /** maps the file named by the descriptor.  the descriptor is a filename prefixed with &lt;&lt; */
+   public void open(String descriptor, ScriptEnvironment env)
+   {
+      try
+      {
+         file = BridgeUtilities.toSleepFile(descriptor.substring(2, descriptor.length()).trim(), env.getScriptInstance());
+
+         FileInputStream source  = new FileInputStream(file);
+         FileChannel     channel = source.getChannel();
+
+         long             size     = channel.size();
+         MappedByteBuffer segments[] = new MappedByteBuffer[(int)(size >>> SEGMENT_SHIFT) + 1];
+
+         for (int x = 0; x < segments.length; x++)
+         {
+            long start = (long)x << SEGMENT_SHIFT;
+            segments[x] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, SEGMENT_MASK + 1));
+         }
+
+         /* the mapping stays valid after the channel is closed */
+         source.close();
+
+         mapped = new MappedInputStream(segments, size);
+         openRead(mapped);
+      }
+      catch (Exception ex)
+      {
+         env.flagError(ex);
+      }
+   }
+
+   /** sets up the read pipeline directly against the mapped stream, no extra buffering is necessary */
+   public void openRead(InputStream _in)
+   {
+      if (_in instanceof MappedInputStream)
+      {
+         in      = _in;
+         reader  = (MappedInputStream)_in;
+         readerb = new DataInputStream(reader);
+         readeru = new InputStreamReader(readerb);
+      }
+      else
+      {
+         super.openRead(_in);
+      }
+   }
+
+   public void setEncoding(String name) throws UnsupportedEncodingException
+   {
+      super.setEncoding(name);
+      encoding = name;
+   }
+
+   public void close()
+   {
+      super.close();
+      mapped = null;
+   }
+
+   /** returns the current read position within the file */
+   public long tell()
+   {
+      return mapped == null ? -1 : mapped.position;
+   }
+
+   /** moves the read position to the specified offset within the file */
+   public void seek(long offset)
+   {
+      if (mapped != null)
+      {
+         mapped.position = Math.max(0, Math.min(offset, mapped.size));
+      }
+   }
+
+   /** skips the specified number of bytes, returns the number of bytes actually skipped */
+   public long skip(long bytes)
+   {
+      return mapped == null ? 0 : mapped.skip(bytes);
+   }
+
+   /** Reads in a line of text decoded directly from the mapped bytes */
+   public String readLine()
+   {
+      if (mapped == null)
+         return null;
+
+      long start = mapped.position;
+      long end   = start;
+      int  temp  = -1;
+
+      /* remember a line can terminate with any of the following: \r, \n, or \r\n */
+      while (end < mapped.size)
+      {
+         temp = mapped.get(end);
+
+         if (temp == '\n' || temp == '\r')
+            break;
+
+         end++;
+      }
+
+      if (end == start && end >= mapped.size)
+      {
+         close();
+         return null;
+      }
+
+      String text = decode(start, (int)(end - start));
+
+      if (end >= mapped.size)
+      {
+         close();
+      }
+      else if (temp == '\r' && end + 1 < mapped.size && mapped.get(end + 1) == '\n')
+      {
+         mapped.position = end + 2;
+      }
+      else
+      {
+         mapped.position = end + 1;
+      }
+
+      return text;
+   }
+
+   /** Reads in a character of text and returns as a string. */
+   public String readCharacter()
+   {
+      if (mapped == null)
+         return null;
+
+      CharsetDecoder decoder = getCharset().newDecoder();
+      decoder.onMalformedInput(CodingErrorAction.REPLACE);
+      decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+      ByteBuffer bytes = ByteBuffer.allocate(8);
+      CharBuffer chars = CharBuffer.allocate(2);
+
+      /* feed the decoder one byte at a time until it hands us a character */
+      while (mapped.position < mapped.size && bytes.hasRemaining())
+      {
+         bytes.put(mapped.get(mapped.position++));
+         bytes.flip();
+         decoder.decode(bytes, chars, false);
+         bytes.compact();
+
+         if (chars.position() > 0)
+         {
+            return String.valueOf(chars.get(0));
+         }
+      }
+
+      close();
+      return null;
+   }
+
+   private Charset getCharset()
+   {
+      try
+      {
+         return Charset.forName(encoding == null ? System.getProperty("file.encoding") : encoding);
+      }
+      catch (Exception ex)
+      {
+         return Charset.forName("ISO-8859-1");
+      }
+   }
+
+   private String decode(long start, int length)
+   {
+      byte[] data = new byte[length];
+      long   save = mapped.position;
+
+      mapped.position = start;
+      mapped.read(data, 0, length);
+      mapped.position = save;
+
+      try
+      {
+         return encoding == null ? new String(data) : new String(data, encoding);
+      }
+      catch (UnsupportedEncodingException ex)
+      {
+         return new String(data);
+      }
+   }
+
+   /** An input stream that reads from a series of mapped segments.  This is a BufferedInputStream so it can sit in
+       the spot where IOObject keeps its buffer, mark and reset are simply saved positions. */
+   public static class MappedInputStream extends BufferedInputStream
+   {
+      protected MappedByteBuffer segments[];
+      protected long             size;
+      protected long             position = 0;
+      protected long             marked   = 0;
+
+      public MappedInputStream(MappedByteBuffer _segments[], long _size)
+      {
+         super(null, 1);
+         segments = _segments;
+         size     = _size;
+      }
+
+      protected byte get(long index)
+      {
+         return segments[(int)(index >>> SEGMENT_SHIFT)].get((int)(index & SEGMENT_MASK));
+      }
+
+      public int read()
+      {
+         if (position >= size)
+            return -1;
+
+         return get(position++) & 0xFF;
+      }
+
+      public int read(byte[] b, int off, int len)
+      {
+         if (len == 0)
+            return 0;
+
+         if (position >= size)
+            return -1;
+
+         int total = (int)Math.min(len, size - position);
+         int read  = 0;
+
+         while (read < total)
+         {
+            MappedByteBuffer segment = segments[(int)(position >>> SEGMENT_SHIFT)];
+            int              index   = (int)(position & SEGMENT_MASK);
+            int              chunk   = Math.min(total - read, segment.limit() - index);
+
+            segment.position(index);
+            segment.get(b, off + read, chunk);
+
+            read     += chunk;
+            position += chunk;
+         }
+
+         return read;
+      }
+
+      public long skip(long n)
+      {
+         long skipped = Math.max(0, Math.min(n, size - position));
+         position += skipped;
+         return skipped;
+      }
+
+      public int available()
+      {
+         return (int)Math.min(Integer.MAX_VALUE, size - position);
+      }
+
+      public void mark(int readlimit)
+      {
+         marked = position;
+      }
+
+      public void reset()
+      {
+         position = marked;
+      }
+
+      public boolean markSupported()
+      {
+         return true;
+      }
+
+      public void close()
+      {
+         segments = new MappedByteBuffer[0];
+         size     = 0;
+         position = 0;
+      }
+   }
+}
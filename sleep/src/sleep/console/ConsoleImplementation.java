@@ -79,7 +79,7 @@ public class ConsoleImplementation implements RuntimeWarningWatcher, Loadable, C
    public ConsoleImplementation(Hashtable _sharedEnvironment, Variable _sharedVariables, ScriptLoader _loader)
    {
       if (_sharedEnvironment == null)
-         _sharedEnvironment = new Hashtable();
+         _sharedEnvironment = new SnapshotEnvironment();
 
       if (_sharedVariables == null)
          _sharedVariables = new DefaultVariable();
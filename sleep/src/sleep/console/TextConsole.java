@@ -107,11 +107,11 @@ public class TextConsole implements ConsoleProxy
 
             if (eval)
             {
-                script = loader.loadScript(args[start - 1], args[start], new Hashtable());
+                script = loader.loadScript(args[start - 1], args[start], new SnapshotEnvironment());
             }
             else if (expr)
             {
-                script = loader.loadScript(args[start - 1], "println(" + args[start] + ");", new Hashtable());
+                script = loader.loadScript(args[start - 1], "println(" + args[start] + ");", new SnapshotEnvironment());
             }
             else if (args[start].equals("-"))
             {
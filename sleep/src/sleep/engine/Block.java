@@ -156,6 +156,63 @@ public class Block implements Serializable
        return (new File(source).getName()) + ":" + getApproximateLineRange();
     }
 
+    /** returns the only step in this block, null if this block has no steps or more than one */
+    public Step getOnlyStep()
+    {
+       return first != null && first.next == null ? first : null;
+    }
+
+    /** returns the first step in this block, the rest follow from Step.next */
+    public Step getFirstStep()
+    {
+       return first;
+    }
+
+    /** returns the last step in this block */
+    public Step getLastStep()
+    {
+       return last;
+    }
+
+    /** replaces common sequences of steps in this block with fused steps, see sleep.engine.atoms.Peephole */
+    public void optimize()
+    {
+       Step prev = null;
+       Step temp = first;
+
+       while (temp != null)
+       {
+          Step fused = sleep.engine.atoms.Peephole.fuse(temp);
+
+          if (fused != null)
+          {
+             if (prev == null)
+             {
+                first = fused;
+             }
+             else
+             {
+                prev.next = fused;
+             }
+
+             temp = fused;
+          }
+
+          prev = temp;
+          last = temp;
+          temp = temp.next;
+       }
+    }
+
+    /** appends the steps of the specified block to this block */
+    public void add(Block steps)
+    {
+       for (Step temp = steps.first; temp != null; temp = temp.next)
+       {
+          add(temp);
+       }
+    }
+
     public void add(Step n)
     {
        if (first == null)
@@ -192,9 +249,6 @@ public class Block implements Serializable
     /** clean up the environment */
     private void cleanupEnvironment(ScriptEnvironment environment)
     {
-        /* pop source information from the stack */
-        environment.popSource();
-
         /* remove exception handlers associated with this block (we obviously returned within one */
         if (environment.isResponsible(this))
         {
@@ -211,7 +265,6 @@ public class Block implements Serializable
         {
            if (environment.isThrownValue())
            {
-              environment.pushSource(source); /* may not be necessary, but then again, maybe they are... used for stack traces */
               handleException(environment);
               cleanupEnvironment(environment);
            }
@@ -219,8 +272,6 @@ public class Block implements Serializable
            return environment.getReturnValue();
         }
 
-        environment.pushSource(source);
-
         Step temp = start;
         while (temp != null)
         {
@@ -331,7 +331,18 @@ public abstract class CallRequest
             Scalar   oldargs    = localLevel.getScalar("@_");     /* save the current local variables */
 
             int targs = sleep.bridges.BridgeUtilities.initLocalScope(vars, localLevel, getScriptEnvironment().getCurrentFrame());
-            Scalar eval = inline.evaluate(getScriptEnvironment());
+            Scalar eval;
+
+            getScriptEnvironment().pushSource(inline);
+
+            try
+            {
+               eval = inline.evaluate(getScriptEnvironment());
+            }
+            finally
+            {
+               getScriptEnvironment().popSource();
+            }
     
             /* restore the argument variables */
             if (oldargs != null && oldargs.getArray() != null)
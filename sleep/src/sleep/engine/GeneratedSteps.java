@@ -94,6 +94,14 @@ public class GeneratedSteps
        return temp;
     }
 
+    /** returns a step that computes <var>left</var> <var>oper</var> <var>right</var> once and reuses the result.  left
+        and right are constant steps, a SValue or another folded operation */
+    public Step Fold(String oper, Step left, Step right)
+    {
+       Step temp = new Fold(oper, left, right, this.Operate(oper));
+       return temp;
+    }
+
     public Step AssignT()
     {
        Step temp = new AssignT();
@@ -0,0 +1,180 @@
+package sleep.engine;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import sleep.runtime.*;
+import sleep.engine.types.*;
+
+/** A small polymorphic inline cache kept by each [$object method] and [new Class] step.  It remembers which method
+    or constructor was resolved for a receiver class and the types of the arguments passed to it, along with the
+    converters that marshall the arguments and result of that member.  Arguments whose match depends on more than
+    their type (arrays) are never cached.  Entries are immutable and the entry table is swapped as a whole so a cache
+    may be shared by several threads. */
+public class MemberCache
+{
+   /** number of receiver/signature combinations remembered by one call site */
+   private static final int SIZE = 4;
+
+   private static final Object NULL_ARG = new Object();
+   private static final Object CHAR_ARG = new Object();
+   private static final Object HASH_ARG = new Object();
+
+   /** a resolved member, the member is null when resolution found nothing */
+   public static class Entry
+   {
+      protected final Class    receiver;
+      protected final Object[] signature;
+      protected final Member   member;
+
+      protected Class[]                             parameters;
+      protected ObjectUtilities.ArgumentConverter[] converters;
+      protected ObjectUtilities.ResultConverter     result;
+
+      protected Entry(Class _receiver, Object[] _signature, Member _member)
+      {
+         receiver  = _receiver;
+         signature = _signature;
+         member    = _member;
+
+         if (member instanceof Method)
+         {
+            parameters = ((Method)member).getParameterTypes();
+            result     = ObjectUtilities.getResultConverter(((Method)member).getReturnType(), true);
+         }
+         else if (member instanceof Constructor)
+         {
+            parameters = ((Constructor)member).getParameterTypes();
+            result     = ObjectUtilities.getResultConverter(((Constructor)member).getDeclaringClass(), false);
+         }
+         else
+         {
+            return;
+         }
+
+         converters = new ObjectUtilities.ArgumentConverter[parameters.length];
+
+         for (int x = 0; x < converters.length; x++)
+         {
+            converters[x] = ObjectUtilities.getArgumentConverter(parameters[x]);
+         }
+      }
+
+      /** returns the resolved method or constructor, null if no member matched */
+      public Member getMember()
+      {
+         return member;
+      }
+
+      /** returns the parameter types of the resolved member */
+      public Class[] getParameterTypes()
+      {
+         return parameters;
+      }
+
+      /** pops the arguments for the resolved member off of the stack and marshalls them into Java values */
+      public Object[] buildArguments(Stack arguments, ScriptInstance script)
+      {
+         Object[] values = new Object[converters.length];
+
+         for (int x = 0; x < values.length; x++)
+         {
+            values[x] = converters[x].convert((Scalar)arguments.pop(), script);
+         }
+
+         return values;
+      }
+
+      /** marshalls a value returned by the resolved member into a Sleep scalar */
+      public Scalar buildResult(Object value)
+      {
+         return result.convert(value);
+      }
+   }
+
+   private volatile Entry[] entries = new Entry[0];
+
+   /** returns the key that decides how ObjectUtilities.isArgMatch treats this argument or null if the argument can
+       not be cached */
+   private static Object argKey(Scalar scalar)
+   {
+      if (SleepUtils.isEmptyScalar(scalar))
+      {
+         return NULL_ARG;
+      }
+      else if (scalar.getArray() != null)
+      {
+         return null;
+      }
+      else if (scalar.getHash() != null)
+      {
+         return HASH_ARG;
+      }
+
+      Class type = scalar.getActualValue().getType();
+
+      if (type == ObjectValue.class)
+      {
+         return scalar.objectValue() == null ? null : scalar.objectValue().getClass();
+      }
+      else if (type == StringValue.class && scalar.getActualValue().toString().length() == 1)
+      {
+         return CHAR_ARG;
+      }
+
+      return type;
+   }
+
+   private static boolean matches(Entry entry, Class receiver, Stack arguments)
+   {
+      if (entry.receiver != receiver || entry.signature.length != arguments.size())
+         return false;
+
+      for (int x = 0; x < entry.signature.length; x++)
+      {
+         if (entry.signature[x] != argKey((Scalar)arguments.get(x)))
+            return false;
+      }
+
+      return true;
+   }
+
+   /** returns the cached entry for this receiver and argument stack or null if there is none */
+   public Entry find(Class receiver, Stack arguments)
+   {
+      Entry temp[] = entries;
+
+      for (int x = 0; x < temp.length; x++)
+      {
+         if (matches(temp[x], receiver, arguments))
+            return temp[x];
+      }
+
+      return null;
+   }
+
+   /** remembers the member resolved for this receiver and argument stack.  returns the entry for the member, the
+       entry is not remembered if the arguments can not be cached. */
+   public Entry put(Class receiver, Stack arguments, Member member)
+   {
+      Object signature[] = new Object[arguments.size()];
+
+      for (int x = 0; x < signature.length; x++)
+      {
+         signature[x] = argKey((Scalar)arguments.get(x));
+
+         if (signature[x] == null)
+            return new Entry(receiver, null, member);
+      }
+
+      Entry temp[] = entries;
+      Entry next[] = new Entry[Math.min(temp.length + 1, SIZE)];
+
+      /* newest entry goes first, the oldest falls off the end */
+      next[0] = new Entry(receiver, signature, member);
+      System.arraycopy(temp, 0, next, 1, next.length - 1);
+
+      entries = next;
+      return next[0];
+   }
+}
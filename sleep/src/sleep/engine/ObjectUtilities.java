@@ -239,17 +239,82 @@ public class ObjectUtilities
       }
    }
 
+   /** index of the public methods (grouped by name) and constructors of each class, Class.getMethods() copies the
+       whole method array each time it is called */
+   private static final StripedCache methodIndex      = new StripedCache(512);
+   private static final StripedCache constructorIndex = new StripedCache(512);
+
+   private static final Method[] NO_METHODS = new Method[0];
+
+   private static Map getMethodIndex(Class theClass)
+   {
+      Map index = (Map)methodIndex.get(theClass);
+
+      if (index == null)
+      {
+         Map      names   = new HashMap();
+         Method[] methods = theClass.getMethods();
+
+         for (int x = 0; x < methods.length; x++)
+         {
+            List temp = (List)names.get(methods[x].getName());
+
+            if (temp == null)
+            {
+               temp = new LinkedList();
+               names.put(methods[x].getName(), temp);
+            }
+
+            temp.add(methods[x]);
+         }
+
+         index = new HashMap();
+
+         Iterator i = names.entrySet().iterator();
+         while (i.hasNext())
+         {
+            Map.Entry entry = (Map.Entry)i.next();
+            index.put(entry.getKey(), ((List)entry.getValue()).toArray(NO_METHODS));
+         }
+
+         methodIndex.put(theClass, index);
+      }
+
+      return index;
+   }
+
+   /** returns the public methods of the specified class with the specified name */
+   public static Method[] getMethods(Class theClass, String method)
+   {
+      Method[] methods = (Method[])getMethodIndex(theClass).get(method);
+      return methods == null ? NO_METHODS : methods;
+   }
+
+   /** returns the public constructors of the specified class */
+   public static Constructor[] getConstructors(Class theClass)
+   {
+      Constructor[] constructors = (Constructor[])constructorIndex.get(theClass);
+
+      if (constructors == null)
+      {
+         constructors = theClass.getConstructors();
+         constructorIndex.put(theClass, constructors);
+      }
+
+      return constructors;
+   }
+
    /** attempts to find the method that is the closest match to the specified arguments */
    public static Method findMethod(Class theClass, String method, Stack arguments)
    {
       int      size    = arguments.size();
 
       Method   temp    = null;
-      Method[] methods = theClass.getMethods();
+      Method[] methods = getMethods(theClass, method);
 
       for (int x = 0; x < methods.length; x++) 
       {
-         if (methods[x].getName().equals(method) && methods[x].getParameterTypes().length == size)
+         if (methods[x].getParameterTypes().length == size)
          {
              if (size == 0)
                    return methods[x];
@@ -272,7 +337,7 @@ public class ObjectUtilities
       int      size    = arguments.size();
 
       Constructor   temp         = null;
-      Constructor[] constructors = theClass.getConstructors();
+      Constructor[] constructors = getConstructors(theClass);
 
       for (int x = 0; x < constructors.length; x++) 
       {
@@ -455,7 +520,7 @@ public class ObjectUtilities
       {
          if (type.getComponentType() == Byte.TYPE || type.getComponentType() == Byte.class)
          {
-            return BridgeUtilities.toByteArrayNoConversion(value.toString());
+            return BridgeUtilities.toByteArrayNoConversion(value);
          }
          else if (type.getComponentType() == Character.TYPE || type.getComponentType() == Character.class)
          {
@@ -596,6 +661,134 @@ public class ObjectUtilities
       }
    }
 
+   /** converts a Sleep value into a Java value of one particular type, see getArgumentConverter */
+   public static abstract class ArgumentConverter
+   {
+      public abstract Object convert(Scalar value, ScriptInstance script);
+   }
+
+   /** converts a Java value of one particular type into a Sleep scalar, see getResultConverter */
+   public static abstract class ResultConverter
+   {
+      public abstract Scalar convert(Object value);
+   }
+
+   /** returns a converter that does what buildArgument does for the specified parameter type, minus the checks that
+       decide which conversion applies.  valid for any value isArgMatch accepts for this type. */
+   public static ArgumentConverter getArgumentConverter(final Class type)
+   {
+      if (type == String.class)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return SleepUtils.isEmptyScalar(value) ? null : value.toString(); }
+         };
+      }
+      else if (type == Boolean.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return Boolean.valueOf(value.intValue() != 0); }
+         };
+      }
+      else if (type == Byte.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Byte((byte)value.intValue()); }
+         };
+      }
+      else if (type == Character.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Character(value.toString().charAt(0)); }
+         };
+      }
+      else if (type == Double.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Double(value.doubleValue()); }
+         };
+      }
+      else if (type == Float.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Float((float)value.doubleValue()); }
+         };
+      }
+      else if (type == Integer.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Integer(value.intValue()); }
+         };
+      }
+      else if (type == Short.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Short((short)value.intValue()); }
+         };
+      }
+      else if (type == Long.TYPE)
+      {
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return new Long(value.longValue()); }
+         };
+      }
+      else if (!type.isArray() && !type.isInterface() && type != Object.class && type != ScalarArray.class && type != ScalarHash.class)
+      {
+         /* isArgMatch never pairs an array or hash with this kind of type */
+         return new ArgumentConverter() {
+            public Object convert(Scalar value, ScriptInstance script) { return SleepUtils.isEmptyScalar(value) ? null : value.objectValue(); }
+         };
+      }
+
+      return new ArgumentConverter() {
+         public Object convert(Scalar value, ScriptInstance script) { return buildArgument(type, value, script); }
+      };
+   }
+
+   /** returns a converter that does what BuildScalar does for values of the specified (declared) type */
+   public static ResultConverter getResultConverter(Class type, final boolean primitives)
+   {
+      if (type == Void.TYPE)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return SleepUtils.getEmptyScalar(); }
+         };
+      }
+      else if (type == String.class)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return value == null ? SleepUtils.getEmptyScalar() : SleepUtils.getScalar((String)value); }
+         };
+      }
+      else if (primitives && type == Boolean.TYPE)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return SleepUtils.getScalar(((Boolean)value).booleanValue() ? 1 : 0); }
+         };
+      }
+      else if (primitives && type == Integer.TYPE)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return SleepUtils.getScalar(((Integer)value).intValue()); }
+         };
+      }
+      else if (primitives && type == Long.TYPE)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return SleepUtils.getScalar(((Long)value).longValue()); }
+         };
+      }
+      else if (primitives && type == Double.TYPE)
+      {
+         return new ResultConverter() {
+            public Scalar convert(Object value) { return SleepUtils.getScalar(((Double)value).doubleValue()); }
+         };
+      }
+
+      return new ResultConverter() {
+         public Scalar convert(Object value) { return BuildScalar(primitives, value); }
+      };
+   }
+
    /** Determines the primitive type of the specified array.  Primitive Sleep values (int, long, double) will return the appropriate Number.TYPE class.  This is an important distinction as Double.TYPE != new Double().getClass() */
    public static Class getArrayType(Scalar value, Class defaultc)
    {
@@ -0,0 +1,81 @@
+package sleep.engine;
+
+import java.util.*;
+
+/** A bounded cache that is safe to share between threads.  Keys are spread across several independently locked
+    stripes so threads looking up different keys rarely wait on each other.  Each stripe is insertion ordered, a
+    lookup never modifies the stripe, and the oldest entry in a stripe is evicted once it fills up. */
+public class StripedCache
+{
+   private static final int STRIPES = 16;
+
+   protected Stripe stripes[];
+
+   private static class Stripe extends LinkedHashMap
+   {
+      protected int count;
+
+      public Stripe(int count)
+      {
+         super(11, 0.75f, false);
+         this.count = count;
+      }
+
+      protected boolean removeEldestEntry(Map.Entry eldest)
+      {
+         return (size() > count);
+      }
+   }
+
+   /** creates a cache that holds roughly <var>capacity</var> entries */
+   public StripedCache(int capacity)
+   {
+      stripes = new Stripe[STRIPES];
+
+      for (int x = 0; x < stripes.length; x++)
+      {
+         stripes[x] = new Stripe(Math.max(1, capacity / STRIPES));
+      }
+   }
+
+   private Stripe getStripe(Object key)
+   {
+      int hash = key.hashCode();
+      hash ^= (hash >>> 16);
+      return stripes[hash & (STRIPES - 1)];
+   }
+
+   /** returns the value cached for the specified key or null if there is none */
+   public Object get(Object key)
+   {
+      Stripe stripe = getStripe(key);
+
+      synchronized (stripe)
+      {
+         return stripe.get(key);
+      }
+   }
+
+   /** caches the specified value for the specified key */
+   public void put(Object key, Object value)
+   {
+      Stripe stripe = getStripe(key);
+
+      synchronized (stripe)
+      {
+         stripe.put(key, value);
+      }
+   }
+
+   /** removes every entry with the specified value from the cache */
+   public void removeValue(Object value)
+   {
+      for (int x = 0; x < stripes.length; x++)
+      {
+         synchronized (stripes[x])
+         {
+            stripes[x].values().removeAll(Collections.singleton(value));
+         }
+      }
+   }
+}
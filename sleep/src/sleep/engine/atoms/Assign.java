@@ -25,6 +25,7 @@ package sleep.engine.atoms;
 import java.util.*;
 import sleep.interfaces.*;
 import sleep.engine.*;
+import sleep.engine.types.*;
 import sleep.runtime.*;
 
 public class Assign extends Step
@@ -55,6 +56,28 @@ public class Assign extends Step
       return temp.toString();
    }
 
+   /** true if this is a $string .= "text" assignment */
+   static boolean isAppend(Step operator, Scalar putv)
+   {
+      if (!(operator instanceof Operate) || !".".equals(((Operate)operator).oper) || putv.getActualValue() == null)
+         return false;
+
+      Class type = putv.getActualValue().getClass();
+      return type == StringValue.class || type == BuilderValue.class || type == NullValue.class;
+   }
+
+   /** returns the lhs of an append with a value the concatenation operator can append to without copying it */
+   static Scalar toBuilder(Scalar putv)
+   {
+      if (putv.getActualValue() instanceof BuilderValue)
+         return putv;
+
+      Scalar temp = new Scalar();
+      temp.setValue(new BuilderValue(putv.toString()));
+      temp.setTainted(putv.isTainted());
+      return temp;
+   }
+
    // Pre condition:
    //   actual right hand side value is on "current stack"
    //
@@ -83,7 +106,7 @@ public class Assign extends Step
       {
          e.CreateFrame();
          e.getCurrentFrame().push(value); // rhs
-         e.getCurrentFrame().push(putv);  // lhs - operate expects vars in a weird order.
+         e.getCurrentFrame().push(isAppend(operator, putv) ? toBuilder(putv) : putv);  // lhs - operate expects vars in a weird order.
          operator.evaluate(e);
          value = (Scalar)e.getCurrentFrame().pop();
       }
@@ -27,19 +27,39 @@ import sleep.interfaces.*;
 import sleep.engine.*;
 import sleep.engine.types.*;
 import sleep.runtime.*;
+import sleep.bridges.SleepClosure;
+import sleep.taint.TaintUtils;
 
 public class Call extends Step
 {
    String function;
+
+   /** the closure code this call returns from, null if the call is not in tail position */
+   Block tail = null;
  
    public Call(String f)
    {
       function = f;
    }
 
+   /** marks this call as the value of a return statement in the specified closure code.  when that code is being
+       evaluated by its closure and the function is a closure too, the call is made by the returning closure rather
+       than nested within it. */
+   public void setTail(Block body)
+   {
+      tail = body;
+   }
+
    public String toString(String prefix)
    {
-      return prefix + "[Function Call]: "+function+"\n";
+      return prefix + "[Function Call]: "+function+(tail != null ? " (tail)" : "")+"\n";
+   }
+
+   /** true if the function can be called by the closure that is returning */
+   private boolean isTailCall(ScriptEnvironment e, Function callme)
+   {
+      return tail != null && e.getClosureBody() == tail && callme instanceof SleepClosure && 
+             (e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_TRACE_CALLS) != ScriptInstance.DEBUG_TRACE_CALLS;
    }
 
    // Pre Condition:
@@ -52,8 +72,20 @@ public class Call extends Step
    {
       Function callme = e.getFunction(function);
       Block    inline = null;
+      String   taint  = null;
+
+      if (TaintUtils.isTaintMode() && (callme == null || TaintUtils.isPermeable(callme)))
+         taint = TaintUtils.checkFrame(e);
+
+      if (callme != null && taint == null && isTailCall(e, callme))
+      {
+         Stack arguments = new Stack();
+         arguments.addAll(e.getCurrentFrame());
+         e.KillFrame();
 
-      if (callme != null)
+         e.flagTailCall(function, callme, arguments);
+      }
+      else if (callme != null)
       {
          CallRequest.FunctionCallRequest request = new CallRequest.FunctionCallRequest(e, getLineNumber(), function, callme);         
          request.CallFunction();
@@ -69,6 +101,9 @@ public class Call extends Step
          e.FrameResult(SleepUtils.getEmptyScalar());
       }
 
+      if (taint != null)
+         TaintUtils.taintResult(e, taint, getLineNumber());
+
       return null;
    }
 }
@@ -71,6 +71,10 @@ public class Check implements Serializable
    private Block   setup;
    private boolean negate;
 
+   /** the setup steps when they are only literals and variables, these are placed on the frame without evaluating
+       the setup block (see Peephole) */
+   private Step    operands[];
+
    public String name; 
 
    /** Converts this object to a string, used by the sleep engine for constructing an AST like thing */
@@ -127,6 +131,14 @@ public class Check implements Serializable
       }
       setup = s;
 
+      Step steps[] = Peephole.steps(setup);
+      operands     = null;
+
+      if (steps.length >= 1 && steps.length <= 2 && Peephole.isOperand(steps[0]) && (steps.length == 1 || Peephole.isOperand(steps[1])))
+      {
+         operands = steps;
+      }
+
       iftrue = null;
       iffalse = null;
    }
@@ -157,7 +169,19 @@ public class Check implements Serializable
    public boolean check(ScriptEnvironment env)
    {
       env.CreateFrame();
-      setup.evaluate(env);
+
+      if (operands != null && !Peephole.isStrict(env))
+      {
+         for (int x = 0; x < operands.length; x++)
+         {
+            env.getCurrentFrame().push(Peephole.operand(operands[x], env));
+         }
+      }
+      else
+      {
+         setup.evaluate(env);
+      }
+
       Predicate choice = env.getPredicate(name);
  
       boolean temp;
@@ -0,0 +1,153 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .-------------------------.
+ | sleep.engine.atoms.Fold |__________________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description: This class contains an implementation of an atomic Step for
+     the sleep scripting.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.engine.atoms;
+
+import java.util.*;
+import sleep.interfaces.*;
+import sleep.engine.*;
+import sleep.engine.types.*;
+import sleep.runtime.*;
+
+/** An operator applied to constant operands, i.e. 60 * 60 * 24 or "a" . "b".  The result is computed the first time
+    the step is evaluated and reused for as long as the operator in the script environment is one of the built-in
+    operators (see {@link #addBuiltinOperator(Object)}).  An operator installed by any other bridge is called each time,
+    just like an Operate step. */
+public class Fold extends Step
+{
+   protected String oper;
+   protected Step   left;
+   protected Step   right;
+   protected Step   operate;
+
+   protected transient Folded folded = null;
+
+   /** the operator instances installed by Sleep's built-in bridges, compared by identity */
+   private static final Map builtins = Collections.synchronizedMap(new WeakHashMap());
+
+   /** a computed result and the operator that computed it */
+   private static class Folded
+   {
+      protected Object operator;
+      protected Scalar value;
+   }
+
+   /** flags an operator a built-in bridge installs as one whose result depends only on its operands.  Constant
+       operations with this operator instance are computed once. */
+   public static void addBuiltinOperator(Object operator)
+   {
+      builtins.put(operator, Boolean.TRUE);
+   }
+
+   public Fold(String _oper, Step _left, Step _right, Step _operate)
+   {
+      oper    = _oper;
+      left    = _left;
+      right   = _right;
+      operate = _operate;
+   }
+
+   public String toString(String prefix)
+   {
+      return prefix + "[Fold]: " + oper + "\n" + left.toString(prefix + "   ") + right.toString(prefix + "   ");
+   }
+
+   public void setInfo(int _line)
+   {
+      super.setInfo(_line);
+      operate.setInfo(_line);
+   }
+
+   /** returns the value of a constant step, null if the value can not be computed ahead of time */
+   private static Scalar constant(Step step, ScriptEnvironment e)
+   {
+      if (step instanceof SValue)
+      {
+         return ((SValue)step).value;
+      }
+      else if (step instanceof Fold)
+      {
+         return ((Fold)step).constant(e);
+      }
+
+      return null;
+   }
+
+   /** returns the value of this operation, null if it can not be computed with the operator in this environment */
+   public Scalar constant(ScriptEnvironment e)
+   {
+      Operator callme = e.getOperator(oper);
+
+      if (callme == null || !builtins.containsKey(callme))
+         return null;
+
+      Folded temp = folded;
+
+      if (temp != null && temp.operator == callme)
+         return temp.value;
+
+      Scalar a = constant(left, e);
+      Scalar b = constant(right, e);
+
+      if (a == null || b == null)
+         return null;
+
+      Stack arguments = new Stack();
+      arguments.push(SleepUtils.getScalar(b));
+      arguments.push(SleepUtils.getScalar(a));
+
+      Scalar value = callme.operate(oper, e.getScriptInstance(), arguments);
+
+      /* only plain values are reused, i.e. => builds a new object each time */
+      if (value != null && value.getArray() == null && value.getHash() == null && value.getActualValue().getType() != ObjectValue.class)
+      {
+         temp          = new Folded();
+         temp.operator = callme;
+         temp.value    = value;
+         folded        = temp;
+      }
+
+      return value;
+   }
+
+   //
+   // Post Condition:
+   //   result of the operation is placed on the current frame
+   //
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      Scalar value = constant(e);
+
+      if (value != null)
+      {
+         e.getCurrentFrame().push(SleepUtils.getScalar(value));
+         return value;
+      }
+
+      e.CreateFrame();
+      right.evaluate(e);
+      left.evaluate(e);
+      operate.evaluate(e);
+
+      return null;
+   }
+}
@@ -0,0 +1,165 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .--------------------------------.
+ | sleep.engine.atoms.FusedAssign |___________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description: This class contains an implementation of an atomic Step for
+     the sleep scripting.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.engine.atoms;
+
+import java.util.*;
+import sleep.interfaces.*;
+import sleep.engine.*;
+import sleep.runtime.*;
+
+/** An assignment of a literal, a variable, or an operation on two of them to a $scalar, i.e. $x = $y, $x = $x + 1,
+    $x++, or $x .= "text".  Replaces the frames and steps these statements compile to, see {@link Peephole}. */
+public class FusedAssign extends Step
+{
+   protected Get     variable; /* the $scalar assigned to */
+   protected Step    left;     /* left operand of the operation, null if there is no operation or it is an op= */
+   protected Step    right;    /* right operand, or the value assigned */
+   protected Operate operate;  /* the operation, null for a plain assignment */
+   protected Step[]  original; /* the steps this step replaces */
+
+   //
+   // $x = left op right:  [Create Frame] [Create Frame] right left [Operator] [Assign] $x
+   // $x op= right:        [Create Frame] right [Assign] $x (with an operator)
+   // $x = right:          [Create Frame] right [Assign] $x
+   //
+
+   static Step fuse(Step start)
+   {
+      Step steps[] = Peephole.steps(start, 6);
+
+      if (steps != null && Peephole.is(steps[0], CreateFrame.class) && Peephole.is(steps[1], CreateFrame.class) &&
+          Peephole.isOperand(steps[2]) && Peephole.isOperand(steps[3]) && Peephole.is(steps[4], Operate.class) &&
+          isAssign(steps[5]) && ((Assign)steps[5]).operator == null)
+      {
+         return new FusedAssign(target(steps[5]), steps[3], steps[2], (Operate)steps[4], steps);
+      }
+
+      steps = Peephole.steps(start, 3);
+
+      if (steps != null && Peephole.is(steps[0], CreateFrame.class) && Peephole.isOperand(steps[1]) && isAssign(steps[2]))
+      {
+         Step operator = ((Assign)steps[2]).operator;
+
+         if (operator == null || Peephole.is(operator, Operate.class))
+            return new FusedAssign(target(steps[2]), null, steps[1], (Operate)operator, steps);
+      }
+
+      return null;
+   }
+
+   /** true if the step assigns to a single $scalar */
+   private static boolean isAssign(Step step)
+   {
+      return Peephole.is(step, Assign.class) && Peephole.isScalar(((Assign)step).variable.getOnlyStep());
+   }
+
+   /** returns the step that gets the $scalar an Assign step assigns to */
+   private static Get target(Step step)
+   {
+      return (Get)((Assign)step).variable.getOnlyStep();
+   }
+
+   private FusedAssign(Get _variable, Step _left, Step _right, Operate _operate, Step[] _original)
+   {
+      variable = _variable;
+      left     = _left;
+      right    = _right;
+      operate  = _operate;
+      original = _original;
+
+      setInfo(original[original.length - 1].getLineNumber());
+      next = original[original.length - 1].next;
+   }
+
+   public String toString(String prefix)
+   {
+      StringBuffer temp = new StringBuffer();
+      temp.append(prefix);
+      temp.append("[Fused Assign]: ");
+      temp.append(variable.value);
+
+      if (operate == null)
+      {
+         temp.append(" = ");
+      }
+      else if (left == null)
+      {
+         temp.append(" " + operate.oper + "= ");
+      }
+      else
+      {
+         temp.append(" = " + Peephole.describe(left) + " " + operate.oper + " ");
+      }
+
+      temp.append(Peephole.describe(right));
+      temp.append("\n");
+      return temp.toString();
+   }
+
+   //
+   // Post Condition:
+   //   assigned value is placed on the current frame, if there is one
+   //
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      if (Peephole.isStrict(e))
+      {
+         Peephole.evaluate(original, e);
+         return null;
+      }
+
+      Scalar value = Peephole.operand(right, e);
+      Scalar putv;
+
+      if (left != null)
+      {
+         e.CreateFrame();
+         e.getCurrentFrame().push(value); // rhs
+         e.getCurrentFrame().push(Peephole.operand(left, e));
+         value = operate.operate(e);
+
+         putv = variable.lookup(e);
+      }
+      else
+      {
+         putv = variable.lookup(e);
+
+         if (operate != null)
+         {
+            e.CreateFrame();
+            e.getCurrentFrame().push(value); // rhs
+            e.getCurrentFrame().push(Assign.isAppend(operate, putv) ? Assign.toBuilder(putv) : putv);
+            value = operate.operate(e);
+         }
+      }
+
+      putv.setValue(value);
+
+      if (e.hasFrame())
+      {
+         e.getCurrentFrame().push(value);
+      }
+
+      return null;
+   }
+}
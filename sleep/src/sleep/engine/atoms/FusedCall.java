@@ -0,0 +1,114 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .------------------------------.
+ | sleep.engine.atoms.FusedCall |_____________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description: This class contains an implementation of an atomic Step for
+     the sleep scripting.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.engine.atoms;
+
+import java.util.*;
+import sleep.interfaces.*;
+import sleep.engine.*;
+import sleep.runtime.*;
+
+/** A function call whose arguments are all literals or variables, i.e. println("text") or foo($x, 3).  The arguments
+    are placed on the frame for the call without a step for each one, see {@link Peephole}. */
+public class FusedCall extends Step
+{
+   protected Step   arguments[]; /* the argument steps in the order they are evaluated */
+   protected Call   call;
+   protected Step[] original;    /* the steps this step replaces */
+
+   //
+   // function(a, b):  [Create Frame] b a [Function Call]
+   //
+
+   static Step fuse(Step start)
+   {
+      if (!Peephole.is(start, CreateFrame.class))
+         return null;
+
+      LinkedList steps = new LinkedList();
+      steps.add(start);
+
+      Step temp = start.next;
+      while (Peephole.isOperand(temp))
+      {
+         steps.add(temp);
+         temp = temp.next;
+      }
+
+      if (!Peephole.is(temp, Call.class))
+         return null;
+
+      steps.add(temp);
+      return new FusedCall((Step[])steps.toArray(new Step[0]));
+   }
+
+   private FusedCall(Step[] _original)
+   {
+      original  = _original;
+      call      = (Call)original[original.length - 1];
+      arguments = new Step[original.length - 2];
+      System.arraycopy(original, 1, arguments, 0, arguments.length);
+
+      setInfo(call.getLineNumber());
+      next = call.next;
+   }
+
+   public String toString(String prefix)
+   {
+      StringBuffer temp = new StringBuffer();
+      temp.append(prefix);
+      temp.append("[Fused Call]: ");
+      temp.append(call.function);
+      temp.append("(");
+
+      for (int x = arguments.length - 1; x >= 0; x--)
+      {
+         temp.append(Peephole.describe(arguments[x]));
+
+         if (x > 0)
+            temp.append(", ");
+      }
+
+      temp.append(")\n");
+      return temp.toString();
+   }
+
+   // Post Condition:
+   //  return value of the function is placed on the current frame
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      if (Peephole.isStrict(e))
+      {
+         Peephole.evaluate(original, e);
+         return null;
+      }
+
+      e.CreateFrame();
+
+      for (int x = 0; x < arguments.length; x++)
+      {
+         e.getCurrentFrame().push(Peephole.operand(arguments[x], e));
+      }
+
+      return call.evaluate(e);
+   }
+}
@@ -0,0 +1,92 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .-------------------------------.
+ | sleep.engine.atoms.FusedIndex |____________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description: This class contains an implementation of an atomic Step for
+     the sleep scripting.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.engine.atoms;
+
+import java.util.*;
+import sleep.interfaces.*;
+import sleep.engine.*;
+import sleep.runtime.*;
+
+/** A variable indexed by a literal or another variable, i.e. @array[$x] or %hash["key"].  Replaces the nested
+    block of the index with a direct lookup, see {@link Peephole}. */
+public class FusedIndex extends Step
+{
+   protected Get    structure; /* the indexed variable */
+   protected Index  index;     /* the index step, holds the name used to create a missing @array or %hash */
+   protected Step   position;  /* the index value */
+   protected Step[] original;  /* the steps this step replaces */
+
+   //
+   // @array[position]:  [Get Item] @array [Scalar index] @array ([Create Frame] position)
+   //
+
+   static Step fuse(Step start)
+   {
+      Step steps[] = Peephole.steps(start, 2);
+
+      if (steps != null && Peephole.is(steps[0], Get.class) && ((Get)steps[0]).value.charAt(0) != '&' && Peephole.is(steps[1], Index.class) && ((Index)steps[1]).index != null)
+      {
+         Step index[] = Peephole.steps(((Index)steps[1]).index);
+
+         if (index.length == 2 && Peephole.is(index[0], CreateFrame.class) && Peephole.isOperand(index[1]))
+            return new FusedIndex((Get)steps[0], (Index)steps[1], index[1], steps);
+      }
+
+      return null;
+   }
+
+   private FusedIndex(Get _structure, Index _index, Step _position, Step[] _original)
+   {
+      structure = _structure;
+      index     = _index;
+      position  = _position;
+      original  = _original;
+
+      setInfo(index.getLineNumber());
+      next = index.next;
+   }
+
+   public String toString(String prefix)
+   {
+      return prefix + "[Fused Index]: " + structure.value + "[" + Peephole.describe(position) + "]\n";
+   }
+
+   //
+   // Post Condition:
+   //   the indexed value is placed on the current frame
+   //
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      if (Peephole.isStrict(e))
+      {
+         Peephole.evaluate(original, e);
+         return null;
+      }
+
+      Scalar temp = structure.lookup(e);
+      Index.vivify(index.value, temp);
+
+      e.getCurrentFrame().push(Index.getAt(temp, Peephole.operand(position, e)));
+      return null;
+   }
+}
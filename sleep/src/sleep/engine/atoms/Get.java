@@ -41,39 +41,40 @@ public class Get extends Step
       return prefix + "[Get Item]: "+value+"\n";
    }
 
-   public Scalar evaluate(ScriptEnvironment e)
+   /** returns the function or variable named by this step, a missing variable is created */
+   Scalar lookup(ScriptEnvironment e)
    {
       if (value.charAt(0) == '&')
       {
          Function func = e.getFunction(value);
-
-         Scalar blah = SleepUtils.getScalar(func); 
-         e.getCurrentFrame().push(blah);
+         return SleepUtils.getScalar(func); 
       }
-      else
+
+      Scalar structure = e.getScalar(value);
+
+      if (structure == null)
       {
-         Scalar structure = e.getScalar(value);
+         if (value.charAt(0) == '@')
+            structure = SleepUtils.getArrayScalar();
+         else if (value.charAt(0) == '%')
+            structure = SleepUtils.getHashScalar();
+         else
+            structure = SleepUtils.getEmptyScalar();
+
+         e.putScalar(value, structure);
 
-         if (structure == null)
+         if ((e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_REQUIRE_STRICT) == ScriptInstance.DEBUG_REQUIRE_STRICT)
          {
-            if (value.charAt(0) == '@')
-               structure = SleepUtils.getArrayScalar();
-            else if (value.charAt(0) == '%')
-               structure = SleepUtils.getHashScalar();
-            else
-               structure = SleepUtils.getEmptyScalar();
-
-            e.putScalar(value, structure);
-
-            if ((e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_REQUIRE_STRICT) == ScriptInstance.DEBUG_REQUIRE_STRICT)
-            {
-               e.showDebugMessage("variable '" + value + "' not declared");
-            }
+            e.showDebugMessage("variable '" + value + "' not declared");
          }
-
-         e.getCurrentFrame().push(structure);
       }
 
+      return structure;
+   }
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      e.getCurrentFrame().push(lookup(e));
       return null;
    }
 }
@@ -54,20 +54,9 @@ public class Index extends Step
       index = i;
    }
 
-   //
-   // Pre Condition:
-   //   previous data structure is top item on current frame
-   //
-   // Post Condition:
-   //   current frame is dissolved
-   //   current data data structure is top item on parent frame
-
-   public Scalar evaluate(ScriptEnvironment e)
+   /** turns an empty @array or %hash scalar into an empty array or hash */
+   static void vivify(String value, Scalar structure)
    {
-      Scalar pos, rv = null;
-
-      Scalar structure = (Scalar)e.getCurrentFrame().pop();
-
       if (SleepUtils.isEmptyScalar(structure))
       {
           if (value.charAt(0) == '@')
@@ -79,12 +68,11 @@ public class Index extends Step
              structure.setValue(SleepUtils.getHashScalar());
           }
       }
+   }
 
-//      e.CreateFrame();
-         index.evaluate(e);
-         pos = (Scalar)(e.getCurrentFrame().pop());
-//      e.KillFrame();
-
+   /** returns the element of the array, hash, or closure at the specified position */
+   static Scalar getAt(Scalar structure, Scalar pos)
+   {
       if (structure.getArray() != null) 
       { 
           int posv = pos.getValue().intValue();
@@ -98,9 +86,9 @@ public class Index extends Step
              }
           }
           
-          rv = structure.getArray().getAt(posv); 
+          return structure.getArray().getAt(posv); 
       }
-      else if (structure.getHash() != null) { rv = structure.getHash().getAt(pos); }
+      else if (structure.getHash() != null) { return structure.getHash().getAt(pos); }
       else if (structure.objectValue() != null && structure.objectValue() instanceof SleepClosure)
       {
          SleepClosure closure = (SleepClosure)structure.objectValue();
@@ -109,13 +97,42 @@ public class Index extends Step
          {
             closure.getVariables().putScalar(pos.toString(), SleepUtils.getEmptyScalar());
          }
-         rv = closure.getVariables().getScalar(pos.toString());
+         return closure.getVariables().getScalar(pos.toString());
       }
-      else 
-      { 
+
+      throw new IllegalArgumentException("invalid use of index operator: " + SleepUtils.describe(structure) + "[" + SleepUtils.describe(pos) + "]");
+   }
+
+   //
+   // Pre Condition:
+   //   previous data structure is top item on current frame
+   //
+   // Post Condition:
+   //   current frame is dissolved
+   //   current data data structure is top item on parent frame
+
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      Scalar pos, rv = null;
+
+      Scalar structure = (Scalar)e.getCurrentFrame().pop();
+
+      vivify(value, structure);
+
+//      e.CreateFrame();
+         index.evaluate(e);
+         pos = (Scalar)(e.getCurrentFrame().pop());
+//      e.KillFrame();
+
+      try
+      {
+         rv = getAt(structure, pos);
+      }
+      catch (IllegalArgumentException ex)
+      {
          e.KillFrame();
-         throw new IllegalArgumentException("invalid use of index operator: " + SleepUtils.describe(structure) + "[" + SleepUtils.describe(pos) + "]");
-      } 
+         throw ex;
+      }
 
       e.FrameResult(rv);
       return null;
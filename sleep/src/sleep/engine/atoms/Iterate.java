@@ -75,8 +75,7 @@ public class Iterate extends Step
 
    private void iterator_destroy(ScriptEnvironment e)
    {
-      Stack iterators = (Stack)(e.getContextMetadata("iterators"));
-      iterators.pop();      
+      e.getIterators().pop();
    }
 
    private void iterator_create(ScriptEnvironment e)
@@ -150,21 +149,12 @@ public class Iterate extends Step
       //
       // save the iterator
       //
-      Stack iterators   = (Stack)(e.getContextMetadata("iterators"));
-
-      if (iterators == null)
-      {
-         iterators = new Stack();
-         e.setContextMetadata("iterators", iterators);
-      }
-
-      iterators.push(data);
+      e.getIterators().push(data);
    }
 
    private void iterator_next(ScriptEnvironment e)
    {
-      Stack iterators   = (Stack)(e.getContextMetadata("iterators"));
-      IteratorData data = (IteratorData)(iterators.peek());
+      IteratorData data = (IteratorData)(e.getIterators().peek());
 
       if (data.iterator != null && data.iterator.hasNext())
       {
@@ -27,6 +27,7 @@ import sleep.engine.*;
 import sleep.runtime.*;
 
 import sleep.bridges.SleepClosure;
+import sleep.taint.TaintUtils;
 
 import java.lang.reflect.*;
 
@@ -35,6 +36,8 @@ public class ObjectAccess extends Step
    protected String name;
    protected Class  classRef;
 
+   protected transient MemberCache cache;
+
    public ObjectAccess(String _name, Class _classRef)
    {
       name     = _name;
@@ -46,17 +49,45 @@ public class ObjectAccess extends Step
       return "[Object Access]: "+classRef+"#"+name+"\n";
    }
 
+   /** returns the method matching the arguments on the current frame, resolved methods are remembered for each
+       receiver class and argument signature seen by this call site */
+   private MemberCache.Entry findMethod(Class theClass, Stack arguments)
+   {
+      if (cache == null)
+         cache = new MemberCache();
+
+      MemberCache.Entry entry = cache.find(theClass, arguments);
+
+      if (entry != null)
+         return entry;
+
+      Method theMethod = ObjectUtilities.findMethod(theClass, name, arguments);
+
+      if (theMethod != null)
+      {
+         try
+         {
+            theMethod.setAccessible(true);
+         }
+         catch (Exception ex) { }
+      }
+
+      return cache.put(theClass, arguments, theMethod);
+   }
+
    private static class MethodCallRequest extends CallRequest
    {
+      protected MemberCache.Entry entry;
       protected Method theMethod;
       protected Scalar scalar;
       protected String name;
       protected Class  theClass;
 
-      public MethodCallRequest(ScriptEnvironment e, int lineNo, Method method, Scalar _scalar, String _name, Class _class)
+      public MethodCallRequest(ScriptEnvironment e, int lineNo, MemberCache.Entry _entry, Scalar _scalar, String _name, Class _class)
       {
          super(e, lineNo);
-         theMethod = method;
+         entry     = _entry;
+         theMethod = (Method)_entry.getMember();
          scalar    = _scalar;
          name      = _name;
          theClass  = _class;
@@ -92,11 +123,11 @@ public class ObjectAccess extends Step
 
       protected Scalar execute()
       {
-         Object[] parameters = ObjectUtilities.buildArgumentArray(theMethod.getParameterTypes(), getScriptEnvironment().getCurrentFrame(), getScriptEnvironment().getScriptInstance());
+         Object[] parameters = entry.buildArguments(getScriptEnvironment().getCurrentFrame(), getScriptEnvironment().getScriptInstance());
 
          try
          {
-            return ObjectUtilities.BuildScalar(true, theMethod.invoke(scalar != null ? scalar.objectValue() : null, parameters));
+            return entry.buildResult(theMethod.invoke(scalar != null ? scalar.objectValue() : null, parameters));
          }
          catch (InvocationTargetException ite)
          {
@@ -108,7 +139,7 @@ public class ObjectAccess extends Step
          catch (IllegalArgumentException aex)
          {
             aex.printStackTrace();
-            getScriptEnvironment().getScriptInstance().fireWarning(ObjectUtilities.buildArgumentErrorMessage(theClass, name, theMethod.getParameterTypes(), parameters), getLineNumber());
+            getScriptEnvironment().getScriptInstance().fireWarning(ObjectUtilities.buildArgumentErrorMessage(theClass, name, entry.getParameterTypes(), parameters), getLineNumber());
          }
          catch (IllegalAccessException iax)
          {
@@ -128,7 +159,7 @@ public class ObjectAccess extends Step
    //   current frame is dissolved
    //   result is top item on parent frame
 
-   public Scalar evaluate(ScriptEnvironment e)
+   private void access(ScriptEnvironment e, String taint)
    {
       Object accessMe = null;
       Class  theClass = null;
@@ -145,7 +176,7 @@ public class ObjectAccess extends Step
             e.KillFrame();
             e.getCurrentFrame().push(SleepUtils.getEmptyScalar());
 
-            return null;
+            return;
          }
 
          theClass  = accessMe.getClass();
@@ -163,7 +194,21 @@ public class ObjectAccess extends Step
       {
          CallRequest.ClosureCallRequest request = new CallRequest.ClosureCallRequest(e, getLineNumber(), scalar, name);
          request.CallFunction();
-         return null;
+         return;
+      }
+
+      //
+      // an object used with tainted arguments is tainted as well
+      //
+
+      if (scalar != null && taint != null && !TaintUtils.isTainted(scalar))
+      {
+         TaintUtils.taint(scalar);
+
+         if ((e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_TRACE_TAINT) == ScriptInstance.DEBUG_TRACE_TAINT)
+         {
+            e.getScriptInstance().fireWarning("tainted object: " + SleepUtils.describe(scalar) + " from: " + taint, getLineNumber());
+         }
       }
 
       //
@@ -176,7 +221,7 @@ public class ObjectAccess extends Step
          e.KillFrame();
          e.getCurrentFrame().push(SleepUtils.getEmptyScalar());
 
-         return null;
+         return;
       }
 
       Scalar result = SleepUtils.getEmptyScalar();
@@ -185,19 +230,14 @@ public class ObjectAccess extends Step
       // try to invoke stuff on the object...
       //
 
-      Method theMethod = ObjectUtilities.findMethod(theClass, name, e.getCurrentFrame());
+      MemberCache.Entry entry     = findMethod(theClass, e.getCurrentFrame());
+      Method            theMethod = (Method)entry.getMember();
 
       if (theMethod != null && (classRef == null || (theMethod.getModifiers() & Modifier.STATIC) == Modifier.STATIC))
       {  
-         try
-         {
-            theMethod.setAccessible(true);
-         }
-         catch (Exception ex) { }
-
-         MethodCallRequest request = new MethodCallRequest(e, getLineNumber(), theMethod, scalar, name, theClass);
+         MethodCallRequest request = new MethodCallRequest(e, getLineNumber(), entry, scalar, name, theClass);
          request.CallFunction();
-         return null;
+         return;
       }
       else if (theMethod == null && !e.getCurrentFrame().isEmpty())
       {
@@ -244,6 +284,18 @@ public class ObjectAccess extends Step
       }
 
       e.FrameResult(result);
+   }
+
+   /** in taint mode the object and the result are tainted when any of the values on the current frame are */
+   public Scalar evaluate(ScriptEnvironment e)
+   {
+      String taint = TaintUtils.isTaintMode() ? TaintUtils.checkFrame(e) : null;
+
+      access(e, taint);
+
+      if (taint != null)
+         TaintUtils.taintResult(e, taint, getLineNumber());
+
       return null;
    }
 }
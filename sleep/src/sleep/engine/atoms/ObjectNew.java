@@ -26,6 +26,7 @@ import java.util.*;
 import sleep.interfaces.*;
 import sleep.engine.*;
 import sleep.runtime.*;
+import sleep.taint.TaintUtils;
 
 import java.lang.reflect.*;
 
@@ -33,6 +34,8 @@ public class ObjectNew extends Step
 {
    protected Class name;
 
+   protected transient MemberCache cache;
+
    public ObjectNew(Class _name)
    {
       name = _name;
@@ -43,15 +46,43 @@ public class ObjectNew extends Step
       return "[Object New]: "+name+"\n";
    }
 
+   /** returns the constructor matching the arguments on the current frame, resolved constructors are remembered
+       for each argument signature seen by this call site */
+   private MemberCache.Entry findConstructor(Stack arguments)
+   {
+      if (cache == null)
+         cache = new MemberCache();
+
+      MemberCache.Entry entry = cache.find(name, arguments);
+
+      if (entry != null)
+         return entry;
+
+      Constructor theConstructor = ObjectUtilities.findConstructor(name, arguments);
+
+      if (theConstructor != null)
+      {
+         try
+         {
+            theConstructor.setAccessible(true);
+         }
+         catch (Exception ex) { }
+      }
+
+      return cache.put(name, arguments, theConstructor);
+   }
+
    private static class ConstructorCallRequest extends CallRequest
    {
+      protected MemberCache.Entry entry;
       protected Constructor theConstructor;
       protected Class  name;
 
-      public ConstructorCallRequest(ScriptEnvironment e, int lineNo, Constructor cont, Class _name)
+      public ConstructorCallRequest(ScriptEnvironment e, int lineNo, MemberCache.Entry _entry, Class _name)
       {
          super(e, lineNo);
-         theConstructor = cont;
+         entry          = _entry;
+         theConstructor = (Constructor)_entry.getMember();
          name      = _name;
       }
 
@@ -75,11 +106,11 @@ public class ObjectNew extends Step
 
       protected Scalar execute()
       {
-         Object[] parameters = ObjectUtilities.buildArgumentArray(theConstructor.getParameterTypes(), getScriptEnvironment().getCurrentFrame(), getScriptEnvironment().getScriptInstance());
+         Object[] parameters = entry.buildArguments(getScriptEnvironment().getCurrentFrame(), getScriptEnvironment().getScriptInstance());
 
          try
          {
-            return ObjectUtilities.BuildScalar(false, theConstructor.newInstance(parameters));
+            return entry.buildResult(theConstructor.newInstance(parameters));
          }
          catch (InvocationTargetException ite)
          {
@@ -91,7 +122,7 @@ public class ObjectNew extends Step
          catch (IllegalArgumentException aex)
          {
             aex.printStackTrace();
-            getScriptEnvironment().getScriptInstance().fireWarning(ObjectUtilities.buildArgumentErrorMessage(name, name.getName(), theConstructor.getParameterTypes(), parameters), getLineNumber());
+            getScriptEnvironment().getScriptInstance().fireWarning(ObjectUtilities.buildArgumentErrorMessage(name, name.getName(), entry.getParameterTypes(), parameters), getLineNumber());
          }
          catch (InstantiationException iex)
          {
@@ -117,17 +148,18 @@ public class ObjectNew extends Step
    public Scalar evaluate(ScriptEnvironment e)
    {
       Scalar      result;
-      Constructor theConstructor  = ObjectUtilities.findConstructor(name, e.getCurrentFrame());
+      MemberCache.Entry entry           = findConstructor(e.getCurrentFrame());
+      Constructor       theConstructor  = (Constructor)entry.getMember();
+      String            taint           = TaintUtils.isTaintMode() ? TaintUtils.checkFrame(e) : null;
 
       if (theConstructor != null)
       {  
-         try
-         {
-            theConstructor.setAccessible(true);
-         }
-         catch (Exception ex) { }
-         ConstructorCallRequest request = new ConstructorCallRequest(e, getLineNumber(), theConstructor, name); 
+         ConstructorCallRequest request = new ConstructorCallRequest(e, getLineNumber(), entry, name); 
          request.CallFunction();
+
+         if (taint != null)
+            TaintUtils.taintResult(e, taint, getLineNumber());
+
          return null;
       }
       else
@@ -26,6 +26,7 @@ import java.util.*;
 import sleep.interfaces.*;
 import sleep.engine.*;
 import sleep.runtime.*;
+import sleep.taint.TaintUtils;
 
 public class Operate extends Step
 {
@@ -41,6 +42,29 @@ public class Operate extends Step
        return prefix + "[Operator]: "+oper+"\n";
    }
 
+   /** applies this operator to the operands on the current frame, dissolves the frame, and returns the result */
+   Scalar operate(ScriptEnvironment e)
+   {
+      Operator callme = e.getOperator(oper);
+
+      if (callme != null)
+      {
+         String taint = TaintUtils.isTaintMode() && TaintUtils.isPermeable(callme) ? TaintUtils.checkFrame(e) : null;
+
+         Scalar temp = callme.operate(oper, e.getScriptInstance(), e.getCurrentFrame());
+         e.KillFrame();
+
+         if (taint != null)
+            TaintUtils.taintResult(e, temp, taint, getLineNumber());
+
+         return temp;
+      }
+
+      e.getScriptInstance().fireWarning("Attempting to use non-existent operator: '" + oper + "'", getLineNumber());
+      e.KillFrame();
+      return SleepUtils.getEmptyScalar();
+   }
+
    //
    // Pre Condition:
    //   lhs, rhs are both on current frame
@@ -52,21 +76,8 @@ public class Operate extends Step
 
    public Scalar evaluate(ScriptEnvironment e)
    {
-      Operator callme = e.getOperator(oper);
-
-      if (callme != null)
-      {
-         Scalar temp = callme.operate(oper, e.getScriptInstance(), e.getCurrentFrame());
-         e.KillFrame();
-         e.getCurrentFrame().push(temp);
-      }
-      else
-      {
-         e.getScriptInstance().fireWarning("Attempting to use non-existent operator: '" + oper + "'", getLineNumber());
-         e.KillFrame();
-         e.getCurrentFrame().push(SleepUtils.getEmptyScalar());
-      }
-
+      Scalar temp = operate(e);
+      e.getCurrentFrame().push(temp);
       return null;
    }
 }
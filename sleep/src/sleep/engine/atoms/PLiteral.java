@@ -4,6 +4,7 @@ import java.util.*;
 import sleep.interfaces.*;
 import sleep.engine.*;
 import sleep.runtime.*;
+import sleep.taint.TaintUtils;
 
 import java.io.Serializable;
 
@@ -42,8 +43,14 @@ public class PLiteral extends Step
 
    public Scalar evaluate(ScriptEnvironment e)
    {
+      String taint = TaintUtils.isTaintMode() ? TaintUtils.checkFrame(e) : null;
+
       Scalar value = SleepUtils.getScalar(buildString(e));
       e.getCurrentFrame().push(value);
+
+      if (taint != null)
+         TaintUtils.taintResult(e, value, taint, getLineNumber());
+
       return value;
    }
 
@@ -65,6 +72,26 @@ public class PLiteral extends Step
       fragments = f;
    }
 
+   /** returns the string built by these fragments if they are all constant strings, null if any fragment needs a
+       value at runtime */
+   public static String getConstant(List fragments)
+   {
+      StringBuffer result = new StringBuffer();
+
+      Iterator i = fragments.iterator();
+      while (i.hasNext())
+      {
+         Fragment f = (Fragment)i.next();
+
+         if (f.type != STRING_FRAGMENT)
+            return null;
+
+         result.append(f.element);
+      }
+
+      return result.toString();
+   }
+
    /** create a fragment for interpretation by this parsed literal step */
    public static Fragment fragment(int type, Object element)
    {
@@ -0,0 +1,146 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .-----------------------------.
+ | sleep.engine.atoms.Peephole |______________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description: A peephole pass that replaces common sequences of atomic
+     steps with a single fused step.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.engine.atoms;
+
+import java.util.*;
+import sleep.interfaces.*;
+import sleep.engine.*;
+import sleep.runtime.*;
+
+/** <p>Replaces short sequences of steps that most expressions compile to with a single step that does the same work
+    without a frame, a nested block, or a dispatch for each step.  The sequences are:</p>
+  *
+  * <ul>
+  * <li><code>$x = $y + 1</code>, <code>$x += 1</code>, <code>$x++</code>, and <code>$x = $y</code> become a {@link FusedAssign}</li>
+  * <li><code>@array[$index]</code> becomes a {@link FusedIndex}</li>
+  * <li><code>function($x, 1)</code> becomes a {@link FusedCall}</li>
+  * </ul>
+  *
+  * <p>Only the operands that can't have side effects (literals and variables) are fused.  Operators and functions are
+  * still looked up in the script environment each time so a bridge that replaces them is honored.  A fused step
+  * evaluates its original steps instead when the script requires variables to be declared, so the warnings stay the
+  * same.</p>
+  */
+public class Peephole
+{
+   /** returns a fused step that replaces the sequence of steps beginning at start or null if there is no such
+       sequence.  the fused step is linked to the step that followed the sequence. */
+   public static Step fuse(Step start)
+   {
+      Step fused = FusedAssign.fuse(start);
+
+      if (fused == null)
+         fused = FusedIndex.fuse(start);
+
+      if (fused == null)
+         fused = FusedCall.fuse(start);
+
+      return fused;
+   }
+
+   /** returns the specified number of steps beginning with start, null if the sequence is shorter than that */
+   static Step[] steps(Step start, int count)
+   {
+      Step temp[] = new Step[count];
+
+      for (int x = 0; x < count; x++)
+      {
+         if (start == null)
+            return null;
+
+         temp[x] = start;
+         start   = start.next;
+      }
+
+      return temp;
+   }
+
+   /** returns the steps of the specified block, the steps are still linked to each other */
+   static Step[] steps(Block block)
+   {
+      LinkedList temp = new LinkedList();
+
+      for (Step step = block.getFirstStep(); step != null; step = step.next)
+      {
+         temp.add(step);
+      }
+
+      return (Step[])temp.toArray(new Step[0]);
+   }
+
+   /** true if the step is exactly of the specified class, steps from another GeneratedSteps factory are left alone */
+   static boolean is(Step step, Class type)
+   {
+      return step != null && step.getClass() == type;
+   }
+
+   /** true if the step pushes a literal or the value of a variable onto the current frame */
+   static boolean isOperand(Step step)
+   {
+      return is(step, SValue.class) || is(step, Get.class);
+   }
+
+   /** true if the step pushes the value of a $scalar variable onto the current frame */
+   static boolean isScalar(Step step)
+   {
+      return is(step, Get.class) && ((Get)step).value.charAt(0) == '$';
+   }
+
+   /** returns the value the operand step would push onto the current frame */
+   static Scalar operand(Step step, ScriptEnvironment e)
+   {
+      if (step instanceof SValue)
+         return SleepUtils.getScalar(((SValue)step).value);
+
+      return ((Get)step).lookup(e);
+   }
+
+   /** returns a short description of an operand step for the AST */
+   static String describe(Step step)
+   {
+      if (step instanceof SValue)
+         return SleepUtils.describe(((SValue)step).value);
+
+      return ((Get)step).value;
+   }
+
+   /** true if a fused step should evaluate its original steps in this environment */
+   static boolean isStrict(ScriptEnvironment e)
+   {
+      return (e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_REQUIRE_STRICT) == ScriptInstance.DEBUG_REQUIRE_STRICT;
+   }
+
+   /** evaluates the original steps of a fused step one after another, like a block would */
+   static void evaluate(Step[] steps, ScriptEnvironment e)
+   {
+      for (int x = 0; x < steps.length; x++)
+      {
+         steps[x].evaluate(e);
+
+         /* the block that holds the fused step reports whatever the last step flags */
+         if ((x + 1) < steps.length && e.isDebugInterrupt())
+         {
+            e.getScriptInstance().fireWarning(e.getDebugString(), steps[x].getLineNumber());
+         }
+      }
+   }
+}
@@ -0,0 +1,105 @@
+package sleep.engine.types;
+
+import sleep.runtime.ScalarType;
+
+/** A string value built up by repeated appends, i.e. $string .= "text".  Each value is an immutable view of the first
+    <var>length</var> characters of a growable buffer.  Appending to the newest view of a buffer grows the buffer in
+    place and returns a new view, older views never see the change since characters are only ever added past their
+    end.  Appending to an older view copies its characters into a buffer of its own.  The string form is built only
+    when a script uses the value. */
+public class BuilderValue implements ScalarType
+{
+   protected StringBuffer buffer;
+   protected int          length;
+
+   protected transient String value = null;
+
+   public BuilderValue(String text)
+   {
+      buffer = new StringBuffer(Math.max(16, text.length() * 2));
+      buffer.append(text);
+      length = buffer.length();
+   }
+
+   private BuilderValue(StringBuffer _buffer, int _length)
+   {
+      buffer = _buffer;
+      length = _length;
+   }
+
+   /** returns a value with the specified text appended to this one */
+   public BuilderValue append(String text)
+   {
+      synchronized (buffer)
+      {
+         if (buffer.length() == length)
+         {
+            buffer.append(text);
+            return new BuilderValue(buffer, buffer.length());
+         }
+      }
+
+      return new BuilderValue(toString()).append(text);
+   }
+
+   public ScalarType copyValue()
+   {
+      return this;
+   }
+
+   public int intValue()
+   {
+      try
+      {
+         return Integer.parseInt(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0;
+      }
+   }
+
+   public long longValue()
+   {
+      try
+      {
+         return Long.parseLong(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0L;
+      }
+   }
+
+   public double doubleValue()
+   {
+      try
+      {
+         return Double.parseDouble(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0.0;
+      }
+   }
+
+   public String toString()
+   {
+      if (value == null)
+      {
+         synchronized (buffer)
+         {
+            value = buffer.substring(0, length);
+         }
+      }
+
+      return value;
+   }
+
+   public Object objectValue()
+   {
+      return toString();
+   }
+
+   public Class getType() { return StringValue.class; }
+}
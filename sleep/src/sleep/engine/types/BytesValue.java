@@ -0,0 +1,118 @@
+package sleep.engine.types;
+
+import sleep.runtime.ScalarType;
+
+/** A string value backed by an array of unsigned bytes.  Sleep represents binary data as a string where each character
+    holds one byte (0-255).  This type keeps the bytes as they were read and only builds that string when a script
+    uses the value in a string context.  The I/O functions read and write the bytes directly.  The backing array is
+    shared and must not be modified once it is wrapped. */
+public class BytesValue implements ScalarType
+{
+   protected byte[] data;
+   protected int    offset;
+   protected int    length;
+
+   protected transient String value = null;
+
+   public BytesValue(byte[] _data)
+   {
+      this(_data, 0, _data.length);
+   }
+
+   public BytesValue(byte[] _data, int _offset, int _length)
+   {
+      data   = _data;
+      offset = _offset;
+      length = _length;
+   }
+
+   /** returns the backing array, the data of this value begins at getOffset() within this array */
+   public byte[] getData()
+   {
+      return data;
+   }
+
+   /** returns the index of the first byte of this value within the backing array */
+   public int getOffset()
+   {
+      return offset;
+   }
+
+   /** returns the number of bytes (and characters) in this value */
+   public int getLength()
+   {
+      return length;
+   }
+
+   /** returns a copy of the bytes held by this value */
+   public byte[] getBytes()
+   {
+      byte[] temp = new byte[length];
+      System.arraycopy(data, offset, temp, 0, length);
+      return temp;
+   }
+
+   public ScalarType copyValue()
+   {
+      return this;
+   }
+
+   public int intValue()
+   {
+      try
+      {
+         return Integer.parseInt(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0;
+      }
+   }
+
+   public long longValue()
+   {
+      try
+      {
+         return Long.parseLong(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0L;
+      }
+   }
+
+   public double doubleValue()
+   {
+      try
+      {
+         return Double.parseDouble(toString());
+      }
+      catch (Exception ex)
+      {
+         return 0.0;
+      }
+   }
+
+   public String toString()
+   {
+      if (value == null)
+      {
+         char[] temp = new char[length];
+         for (int x = 0; x < length; x++)
+         {
+            temp[x] = (char)(data[offset + x] & 0xFF);
+         }
+         value = new String(temp);
+      }
+
+      return value;
+   }
+
+   public Object objectValue()
+   {
+      return toString();
+   }
+
+   /** this value is a string as far as the rest of Sleep is concerned */
+   public Class getType() { return StringValue.class; }
+}
@@ -0,0 +1,34 @@
+package sleep.engine.types;
+
+import java.util.regex.Pattern;
+
+import sleep.runtime.ScalarType;
+
+/** A string literal that the code generator found in the pattern argument of a regex function.  The value acts like
+    any other string, the regex functions use the Pattern compiled for it the first time it is used rather than
+    looking the pattern up in the shared cache on each call. */
+public class PatternValue extends StringValue
+{
+   protected transient volatile Pattern pattern = null;
+
+   public PatternValue(String _value)
+   {
+      super(_value);
+   }
+
+   /** returns the pattern compiled from this value */
+   public Pattern getPattern()
+   {
+      Pattern temp = pattern;
+
+      if (temp == null)
+      {
+         temp    = Pattern.compile(value);
+         pattern = temp;
+      }
+
+      return temp;
+   }
+
+   public Class getType() { return StringValue.class; }
+}
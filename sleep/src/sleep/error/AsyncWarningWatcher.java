@@ -0,0 +1,196 @@
+package sleep.error;
+
+/**
+ * A warning watcher that hands warnings to another watcher on a background thread, so a slow watcher (i.e. one that
+ * logs to a file or over the network) doesn't stall the script.  This makes it practical to leave trace mode
+ * (<code>debug(8)</code> or <code>debug(24)</code>) on for a running application.
+ * <br>
+ * <br>Warnings wait in a fixed size ring buffer.  The background thread takes all of the waiting warnings at once and
+ * hands them to the watcher in the order they were fired.  Formatting a warning (its toString()) is left to the
+ * watcher, so it happens on the background thread too.  When the buffer is full a warning is either dropped
+ * ({@link #DROP}) or the script waits for room ({@link #BLOCK}).  Dropped warnings are counted and reported to the
+ * watcher with the next batch.  A warning the wrapped watcher fires into this watcher (from the background thread)
+ * is dropped when the buffer is full, even with the BLOCK policy, as the background thread can't wait for itself.
+ * <br>
+ * <br>To deliver warnings asynchronously:
+ * <br>
+ * <br><code>script.addWarningWatcher(new AsyncWarningWatcher(new Watchdog(), 4096, AsyncWarningWatcher.DROP));</code>
+ * <br>
+ * <br>The background thread is a daemon thread.  Call {@link #flush()} before exiting to make sure the waiting warnings
+ * are delivered, or {@link #close()} to deliver them and stop the thread.
+ *
+ * @see sleep.error.RuntimeWarningWatcher
+ */
+public class AsyncWarningWatcher implements RuntimeWarningWatcher, Runnable
+{
+   /** overflow policy: drop a warning fired while the buffer is full */
+   public static final int DROP  = 0;
+
+   /** overflow policy: wait for room in the buffer when it is full */
+   public static final int BLOCK = 1;
+
+   protected RuntimeWarningWatcher watcher;
+   protected int                   policy;
+
+   protected ScriptWarning[]       buffer;
+   protected int                   head      = 0;     /* index of the oldest waiting warning */
+   protected int                   count     = 0;     /* number of waiting warnings */
+   protected int                   dropped   = 0;     /* warnings dropped since the last batch */
+   protected ScriptWarning         last      = null;  /* the last warning dropped, its script is used to report the drops */
+   protected boolean               busy      = false; /* true while a batch is being delivered */
+   protected boolean               closed    = false;
+
+   protected Thread                thread;
+
+   /** Creates an asynchronous watcher with room for 1024 waiting warnings that drops warnings when the buffer is full */
+   public AsyncWarningWatcher(RuntimeWarningWatcher _watcher)
+   {
+      this(_watcher, 1024, DROP);
+   }
+
+   /** Creates an asynchronous watcher.
+       @param _watcher the watcher to deliver warnings to
+       @param size the number of warnings that can wait for delivery
+       @param _policy what to do with a warning fired when the buffer is full, DROP or BLOCK */
+   public AsyncWarningWatcher(RuntimeWarningWatcher _watcher, int size, int _policy)
+   {
+      if (size <= 0)
+         throw new IllegalArgumentException("buffer size must be positive: " + size);
+
+      watcher = _watcher;
+      policy  = _policy;
+      buffer  = new ScriptWarning[size];
+
+      thread  = new Thread(this, "Sleep warning watcher");
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /** queues the warning for the background thread */
+   public synchronized void processScriptWarning(ScriptWarning warning)
+   {
+      while (count == buffer.length && policy == BLOCK && !closed && Thread.currentThread() != thread)
+      {
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException ex)
+         {
+            Thread.currentThread().interrupt();
+            break;
+         }
+      }
+
+      if (count == buffer.length || closed)
+      {
+         dropped++;
+         last = warning;
+         return;
+      }
+
+      buffer[(head + count) % buffer.length] = warning;
+      count++;
+
+      notifyAll();
+   }
+
+   /** returns the number of warnings dropped so far that haven't been reported */
+   public synchronized int getDropped()
+   {
+      return dropped;
+   }
+
+   /** waits until every warning fired before this call has been delivered to the watcher */
+   public synchronized void flush() throws InterruptedException
+   {
+      while ((count > 0 || busy || dropped > 0) && thread.isAlive() && Thread.currentThread() != thread)
+      {
+         wait();
+      }
+   }
+
+   /** delivers the waiting warnings and stops the background thread.  warnings fired after this are dropped. */
+   public void close() throws InterruptedException
+   {
+      synchronized (this)
+      {
+         closed = true;
+         notifyAll();
+      }
+
+      thread.join();
+   }
+
+   /** takes all of the waiting warnings, waiting for some if there are none.  returns null when closed and empty. */
+   private synchronized ScriptWarning[] take() throws InterruptedException
+   {
+      busy = false;
+      notifyAll();
+
+      while (count == 0 && dropped == 0 && !closed)
+      {
+         wait();
+      }
+
+      if (count == 0 && dropped == 0)
+         return null;
+
+      ScriptWarning[] batch = new ScriptWarning[count + (dropped > 0 ? 1 : 0)];
+
+      for (int x = 0; x < count; x++)
+      {
+         batch[x] = buffer[(head + x) % buffer.length];
+         buffer[(head + x) % buffer.length] = null;
+      }
+
+      if (dropped > 0)
+      {
+         batch[count] = new ScriptWarning(last, dropped + " warning(s) dropped, the warning buffer was full");
+         dropped = 0;
+         last    = null;
+      }
+
+      head  = 0;
+      count = 0;
+      busy  = true;
+
+      notifyAll();
+      return batch;
+   }
+
+   /** the background thread, delivers batches of warnings to the watcher */
+   public void run()
+   {
+      try
+      {
+         ScriptWarning[] batch;
+
+         while ((batch = take()) != null)
+         {
+            for (int x = 0; x < batch.length; x++)
+            {
+               try
+               {
+                  watcher.processScriptWarning(batch[x]);
+               }
+               catch (RuntimeException ex)
+               {
+                  /* a broken watcher shouldn't stop the delivery of later warnings */
+               }
+            }
+         }
+      }
+      catch (InterruptedException ex)
+      {
+      }
+      finally
+      {
+         synchronized (this)
+         {
+            busy = false;
+            notifyAll();
+         }
+      }
+   }
+}
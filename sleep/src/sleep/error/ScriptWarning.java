@@ -31,6 +31,16 @@ public class ScriptWarning
       source  = script.getScriptEnvironment().getCurrentSource();
    }
 
+   /** a warning about the same source script as another warning, for warnings made outside of the script's thread */
+   ScriptWarning(ScriptWarning _other, String _message)
+   {
+      script  = _other.script;
+      message = _message;
+      line    = _other.line;
+      trace   = false;
+      source  = _other.source;
+   }
+
    /** is this a trace message for one of the trace debug options */
    public boolean isDebugTrace()
    {
@@ -45,6 +45,7 @@ import java.io.*;
 
 import sleep.engine.*;
 import sleep.engine.atoms.*;
+import sleep.engine.types.PatternValue;
 import sleep.error.*;
 import sleep.runtime.*;
 
@@ -55,6 +56,10 @@ public class CodeGenerator implements ParserConstants
    protected Block CURRENT_BLOCK;
    protected Stack BACKUP_BLOCKS;
 
+   /** the code of the closures being generated, innermost on top.  a null entry means calls in tail position are not
+       tail calls (i.e. within a try block) */
+   protected Stack FUNCTION_BLOCKS;
+
    protected GeneratedSteps factory; /* allow specification of a factory for generating steps */
    protected Parser         parser;
 
@@ -73,8 +78,39 @@ public class CodeGenerator implements ParserConstants
       escape_constants.put(c+"", value);
    }
 
+   protected static HashSet pattern_parameters = new HashSet();
+
+   /** declare parameter <var>index</var> (counting from 0) of the specified function or predicate as a regex pattern.
+       'literal' strings passed as this parameter are compiled once rather than on each call. */
+   public static void installPatternParameter(String function, int index)
+   {
+      pattern_parameters.add(function + ":" + index);
+   }
+
+   /** removes the escapes from a 'literal' string */
+   private static String parseLiteral(String literal)
+   {
+      StringBuffer sb = new StringBuffer(ParserUtilities.extract(literal));
+
+      for (int x = 0; x < sb.length(); x++)
+      {
+         if (sb.charAt(x) == '\\' && (x + 1) < sb.length())
+         {
+            char tempc = sb.charAt(x + 1);
+
+            if (tempc == '\'' || tempc == '\\')
+            {
+               sb.deleteCharAt(x);
+            }
+         }
+      }
+
+      return sb.toString();
+   }
+
    public Block getRunnableBlock()
    {
+      CURRENT_BLOCK.optimize();
       return CURRENT_BLOCK;
    }
 
@@ -94,6 +130,7 @@ public class CodeGenerator implements ParserConstants
    {
       Block temp = CURRENT_BLOCK;
       CURRENT_BLOCK = (Block)(BACKUP_BLOCKS.pop());
+      temp.optimize();
       return temp;
    }
 
@@ -104,6 +141,7 @@ public class CodeGenerator implements ParserConstants
 
       CURRENT_BLOCK = new Block(parser.getName());
       BACKUP_BLOCKS = new Stack();
+      FUNCTION_BLOCKS = new Stack();
    }
 
    public CodeGenerator(Parser _parser)
@@ -146,8 +184,8 @@ public class CodeGenerator implements ParserConstants
            // <idea> <string> <idea>
            backup();
 
-           parseIdea(tokens[0]);
-           parseIdea(tokens[2]);
+           parseIdea(tokens[0], strings[1], 0);
+           parseIdea(tokens[2], strings[1], 1);
 
            tempc = factory.Check(strings[1], restore()); // a KillFrame is implied here
            tempc.setInfo(tokens[1].getHint());
@@ -351,6 +389,47 @@ public class CodeGenerator implements ParserConstants
       return allData;
    }
 
+   /** parses parameter <var>index</var> of the specified function.  a 'literal' string in a pattern parameter
+       becomes a value that holds on to its compiled Pattern */
+   public void parseIdea(Token data, String function, int index)
+   {
+      if (!pattern_parameters.contains(function + ":" + index))
+      {
+         parseIdea(data);
+         return;
+      }
+
+      LinkedList allData = TokenParser.ParseIdea(parser, LexicalAnalyzer.GroupBlockTokens(parser, new StringIterator(data.toString(), data.getHint())));
+
+      if (parser.hasErrors())
+      {
+         return;
+      }
+
+      if (allData.size() == 1 && ((Statement)allData.getFirst()).getType() == IDEA_LITERAL)
+      {
+         Statement first = (Statement)allData.getFirst();
+
+         Scalar ascalar = new Scalar();
+         ascalar.setValue(new PatternValue(parseLiteral(first.getStrings()[0])));
+         add(factory.SValue(ascalar), first.getTokens()[0]);
+      }
+      else
+      {
+         Iterator i = allData.iterator();
+         while (i.hasNext())
+         {
+            parse((Statement)i.next());
+         }
+      }
+   }
+
+   /** true if the specified step always produces the same value (for the same operators) */
+   private static boolean isConstant(Step step)
+   {
+      return step instanceof SValue || step instanceof Fold;
+   }
+
    public void parse(Statement datum)
    {
        Block    a, b;
@@ -424,18 +503,36 @@ public class CodeGenerator implements ParserConstants
            //
            // parsing A operator B
            //
-           atom = factory.CreateFrame();
-           add(atom, tokens[2]);
 
            //
            // parse B
            //
+           backup();
            parseIdea(tokens[2]);
+           b = restore();
 
            //
            // parse A
            //
+           backup();
            parseIdea(tokens[0]);
+           a = restore();
+
+           //
+           // an operator applied to two constants is computed once
+           //
+           if (isConstant(a.getOnlyStep()) && isConstant(b.getOnlyStep()))
+           {
+              atom = factory.Fold(strings[1], a.getOnlyStep(), b.getOnlyStep());
+              add(atom, tokens[1]);
+              break;
+           }
+
+           atom = factory.CreateFrame();
+           add(atom, tokens[2]);
+
+           CURRENT_BLOCK.add(b);
+           CURRENT_BLOCK.add(a);
 
            //
            // parse operator
@@ -447,22 +544,7 @@ public class CodeGenerator implements ParserConstants
            parseObject(ParserUtilities.extract(tokens[0]));
            break;
          case IDEA_LITERAL: // implemented                   
-           sb = new StringBuffer(ParserUtilities.extract(strings[0]));
-
-           for (int x = 0; x < sb.length(); x++)
-           {
-              if (sb.charAt(x) == '\\' && (x + 1) < sb.length())
-              {
-                 char tempc = sb.charAt(x + 1);
-
-                 if (tempc == '\'' || tempc == '\\')
-                 {
-                    sb.deleteCharAt(x);
-                 }
-              }
-           }
-
-           ascalar = SleepUtils.getScalar(sb.toString());
+           ascalar = SleepUtils.getScalar(parseLiteral(strings[0]));
            atom    = factory.SValue(ascalar);
            add(atom, tokens[0]);
            break;
@@ -546,9 +628,8 @@ public class CodeGenerator implements ParserConstants
            break;
          case IDEA_STRING: // implemented -- parsed literals, one of my favorite features in sleep
 
-           /** create a frame, we assume the PLiteral machine will destroy it */
-           atom = factory.CreateFrame();
-           add(atom, tokens[0]);
+           /** the variables within the string are parsed into their own block, a string without them is a constant */
+           backup();
            
            boolean isVar = false; // is the current buffer d a varname or not?
 
@@ -708,6 +789,21 @@ public class CodeGenerator implements ParserConstants
                  ll.add(PLiteral.fragment(PLiteral.STRING_FRAGMENT, d.toString()));
            }
 
+           a = restore();
+
+           if (PLiteral.getConstant(ll) != null)
+           {
+              atom = factory.SValue(SleepUtils.getScalar(PLiteral.getConstant(ll)));
+              add(atom, tokens[0]);
+              break;
+           }
+
+           /** create a frame, we assume the PLiteral machine will destroy it */
+           atom = factory.CreateFrame();
+           add(atom, tokens[0]);
+
+           CURRENT_BLOCK.add(a);
+
            atom = factory.PLiteral(ll);
            add(atom, tokens[0]);
            break;
@@ -761,7 +857,9 @@ public class CodeGenerator implements ParserConstants
            Block nameBlock = restore();
  
            backup();
+           FUNCTION_BLOCKS.push(CURRENT_BLOCK);
            parseBlock(tokens[2]);
+           FUNCTION_BLOCKS.pop();
            atom = factory.Bind(strings[0], nameBlock, restore());
            add(atom, tokens[0]);
            break; 
@@ -772,6 +870,7 @@ public class CodeGenerator implements ParserConstants
 
            // now parse the code we want to try as if nothing special ever occured.
            backup();
+           FUNCTION_BLOCKS.push(null);
 
               /* do the normal version of this, the code we want to "try" */
            parseBlock(ParserUtilities.extract(tokens[1]));
@@ -793,6 +892,7 @@ public class CodeGenerator implements ParserConstants
            parseBlock(ParserUtilities.extract(tokens[4]));
 
            b = restore();
+           FUNCTION_BLOCKS.pop();
 
            // add this try/catch bits to the current block
            atom = factory.Try(a, b, strings[3]);
@@ -803,9 +903,11 @@ public class CodeGenerator implements ParserConstants
            break;
          case IDEA_BLOCK:  // turns our block into a scalar :)
            backup();
+           FUNCTION_BLOCKS.push(CURRENT_BLOCK);
 
            parseBlock(ParserUtilities.extract(tokens[0]));
 
+           FUNCTION_BLOCKS.pop();
            atom    = factory.CreateClosure(restore());
            add(atom, tokens[0]);
            break;
@@ -862,7 +964,7 @@ public class CodeGenerator implements ParserConstants
                  add(atom, tokens[0]);
               }
 
-              parseParameters(ParserUtilities.extract(tokens[1]));
+              parseParameters(ParserUtilities.extract(tokens[1]), strings[0]);
 
               atom = factory.Call(strings[0]);
               add(atom, tokens[0]);
@@ -1269,6 +1371,12 @@ public class CodeGenerator implements ParserConstants
            }
            else
            {
+              /* return function(...) in a closure lets the closure make the call, see SleepClosure */
+              if (!FUNCTION_BLOCKS.isEmpty() && FUNCTION_BLOCKS.peek() != null && CURRENT_BLOCK.getLastStep() instanceof Call)
+              {
+                 ((Call)CURRENT_BLOCK.getLastStep()).setTail((Block)FUNCTION_BLOCKS.peek());
+              }
+
               atom = factory.Return(ScriptEnvironment.FLOW_CONTROL_RETURN);
               add(atom, tokens[0]);
            }
@@ -1287,5 +1395,17 @@ public class CodeGenerator implements ParserConstants
          parseIdea(termsAr[x]);
       }
    }
+
+   /** parses the parameters of a call to the specified function */
+   public void parseParameters(Token token, String function)
+   {
+      TokenList terms   = ParserUtilities.groupByParameterTerm(parser, token);
+      Token[]   termsAr = terms.getTokens();
+
+      for (int x = termsAr.length - 1; x >= 0; x--)
+      {
+         parseIdea(termsAr[x], function, x);
+      }
+   }
 }
 
@@ -5,6 +5,8 @@ import java.lang.reflect.*;
 import java.net.*;
 import java.io.*;
 
+import sleep.engine.StripedCache;
+
 /** This class mantains a cache of imported package names and resolve classes for a Sleep parser.
     The existence of this class also allows these imports to be shared between parser instances.  Value is allowing
     dynamically parsed code like eval, expr, compile_clousre etc.. to inherit their parents imported class
@@ -14,6 +16,11 @@ public class ImportManager
    protected List       imports   = new LinkedList();
    protected HashMap    classes   = new HashMap();
 
+   /** fully qualified names tried by any import manager mapped to the class or MISSING, this keeps us from paying
+       for Class.forName (and the exception it throws for each miss) more than once per name */
+   private static final StripedCache resolved = new StripedCache(2048);
+   private static final Object       MISSING  = new Object();
+
    /** Used by Sleep to import statement to save an imported package name. */
    public void importPackage(String packagez, String from)
    {
@@ -42,6 +49,10 @@ public class ImportManager
           addFile(returnValue);
        }
 
+       /* names that did not resolve before may resolve with this import */
+
+       classes.values().removeAll(Collections.singleton(null));
+
        /* handle importing our package */
 
        if (clas.equals("*"))
@@ -76,13 +87,23 @@ public class ImportManager
        if (pack != null) { name.append(pack); name.append("."); }
        name.append(clas);
 
-       try
+       Object found = resolved.get(name.toString());
+
+       if (found == null)
        {
-          return Class.forName(name.toString());
+          try
+          {
+             found = Class.forName(name.toString());
+          }
+          catch (Exception ex)
+          {
+             found = MISSING;
+          }
+
+          resolved.put(name.toString(), found);
        }
-       catch (Exception ex) { }
 
-       return null;
+       return found == MISSING ? null : (Class)found;
    }
 
    /** A hack to add a jar to the system classpath courtesy of Ralph Becker. */
@@ -98,6 +119,9 @@ public class ImportManager
             Method method = sysclass.getDeclaredMethod( "addURL", new Class[] { URL.class } );
             method.setAccessible( true );
             method.invoke( sysloader, new Object[] { url } );
+
+            /* the new jar may have the classes we couldn't find before */
+            resolved.removeValue(MISSING);
         }    
         catch(Throwable t)
         {    
@@ -110,7 +134,7 @@ public class ImportManager
        appended to each imported package to see where the class might exist */
    public Class findImportedClass(String name)
    {
-       if (classes.get(name) == null)
+       if (!classes.containsKey(name))
        {
           Class rv = null;
           String clas, pack;
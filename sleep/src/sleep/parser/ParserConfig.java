@@ -40,6 +40,14 @@ public class ParserConfig
       Checkers.addKeyword(keyword);
    }
 
+   /** declares parameter <var>index</var> (counting from 0) of the specified function (i.e. &amp;split) or predicate
+       (i.e. ismatch) as a regex pattern.  'literal' strings passed to this parameter hold on to their compiled
+       java.util.regex.Pattern, see RegexBridge.getPattern(Scalar) */
+   public static void addPatternParameter(String function, int index)
+   {
+      CodeGenerator.installPatternParameter(function, index);
+   }
+
    /** Query the Sleep classpath.  This is a semi-colon separated list of paths where sleep
        should search for jar files that scripts attempt to import */
    public static String getSleepClasspath()
@@ -0,0 +1,261 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .----------------------------------.
+ | sleep.runtime.LayeredEnvironment |_________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description:
+     The environment of a forked script instance, layered over the
+     environment it was forked from.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.runtime;
+
+import java.util.*;
+
+import sleep.bridges.SleepClosure;
+
+/** <p>The environment of a script instance made safe with {@link ScriptInstance#makeSafe()}, i.e. a fork.  The bindings
+  * the environment had when the script instance was made safe are read through a base layer instead of being cloned.
+  * The base layer is a snapshot, later changes to the environment it was made from don't reach this script instance.
+  * A binding the script instance looks up, adds, or removes is kept in this table.  A subroutine from the base layer
+  * is cloned for this script instance the first time it's looked up, so it has its own closure state.</p>
+  *
+  * <p>Taking the snapshot of a {@link SnapshotEnvironment} reuses the copy it reads from, so it's free when the
+  * environment hasn't changed since the last fork.  Any other table is copied.</p>
+  *
+  * <p>Operations on the whole table (its size, iterating over it, etc.) copy the rest of the base layer into this
+  * table first.  From then on this is a plain Hashtable.</p>
+  */
+class LayeredEnvironment extends Hashtable
+{
+   protected ScriptInstance owner;
+   protected Map            base;                    /* the bindings at the time this table was made, never modified.  null once it's copied */
+   protected Set            removed = new HashSet(); /* keys removed from this table that may still be in the base */
+
+   public LayeredEnvironment(ScriptInstance _owner, Hashtable _parent)
+   {
+      owner = _owner;
+      base  = snapshot(_parent);
+   }
+
+   /** returns the bindings of the specified table as a map that won't change */
+   private static Map snapshot(Hashtable table)
+   {
+      if (table instanceof SnapshotEnvironment)
+         return ((SnapshotEnvironment)table).getSnapshot();
+
+      if (table instanceof LayeredEnvironment)
+         return ((LayeredEnvironment)table).getSharedEntries();
+
+      synchronized (table)
+      {
+         return new HashMap(table);
+      }
+   }
+
+   /** returns the value bound to key without cloning a subroutine from the base layer */
+   protected synchronized Object getShared(Object key)
+   {
+      Object value = super.get(key);
+
+      if (value != null || base == null || removed.contains(key))
+         return value;
+
+      return base.get(key);
+   }
+
+   /** returns a copy of all of the bindings in this table and its base layer, subroutines are not cloned */
+   protected synchronized Map getSharedEntries()
+   {
+      Map entries = (base != null) ? new HashMap(base) : new HashMap();
+
+      if (removed != null)
+         entries.keySet().removeAll(removed);
+
+      /* this table's own bindings, without copying the base layer into it */
+      Iterator i = super.entrySet().iterator();
+      while (i.hasNext())
+      {
+         Map.Entry temp = (Map.Entry)i.next();
+         entries.put(temp.getKey(), temp.getValue());
+      }
+
+      return entries;
+   }
+
+   /** returns a binding from the base layer as this script instance sees it, a subroutine is cloned */
+   private Object inherit(Object key, Object value)
+   {
+      if (value instanceof SleepClosure && key.toString().charAt(0) == '&')
+         return new SleepClosure(owner, ((SleepClosure)value).getRunnableCode());
+
+      return value;
+   }
+
+   /** copies the bindings left in the base layer into this table */
+   private void flatten()
+   {
+      if (base == null)
+         return;
+
+      Iterator i = base.entrySet().iterator();
+      while (i.hasNext())
+      {
+         Map.Entry temp = (Map.Entry)i.next();
+
+         if (!super.containsKey(temp.getKey()) && !removed.contains(temp.getKey()))
+            super.put(temp.getKey(), inherit(temp.getKey(), temp.getValue()));
+      }
+
+      base    = null;
+      removed = null;
+   }
+
+   public synchronized Object get(Object key)
+   {
+      Object value = super.get(key);
+
+      if (value != null || base == null || removed.contains(key))
+         return value;
+
+      value = base.get(key);
+
+      if (value != null)
+      {
+         value = inherit(key, value);
+         super.put(key, value);
+      }
+
+      return value;
+   }
+
+   public synchronized boolean containsKey(Object key)
+   {
+      return getShared(key) != null;
+   }
+
+   public synchronized Object put(Object key, Object value)
+   {
+      Object old = getShared(key);
+
+      if (removed != null)
+         removed.remove(key);
+
+      super.put(key, value);
+      return old;
+   }
+
+   public synchronized Object remove(Object key)
+   {
+      Object old = getShared(key);
+
+      super.remove(key);
+
+      if (base != null && old != null)
+         removed.add(key);
+
+      return old;
+   }
+
+   public synchronized void clear()
+   {
+      base    = null;
+      removed = null;
+      super.clear();
+   }
+
+   public synchronized int size()
+   {
+      flatten();
+      return super.size();
+   }
+
+   public synchronized boolean isEmpty()
+   {
+      flatten();
+      return super.isEmpty();
+   }
+
+   public synchronized Enumeration keys()
+   {
+      flatten();
+      return super.keys();
+   }
+
+   public synchronized Enumeration elements()
+   {
+      flatten();
+      return super.elements();
+   }
+
+   public synchronized boolean contains(Object value)
+   {
+      flatten();
+      return super.contains(value);
+   }
+
+   public boolean containsValue(Object value)
+   {
+      return contains(value);
+   }
+
+   public synchronized Set keySet()
+   {
+      flatten();
+      return super.keySet();
+   }
+
+   public synchronized Set entrySet()
+   {
+      flatten();
+      return super.entrySet();
+   }
+
+   public synchronized Collection values()
+   {
+      flatten();
+      return super.values();
+   }
+
+   public synchronized Object clone()
+   {
+      flatten();
+      return super.clone();
+   }
+
+   public synchronized String toString()
+   {
+      flatten();
+      return super.toString();
+   }
+
+   public synchronized boolean equals(Object o)
+   {
+      flatten();
+      return super.equals(o);
+   }
+
+   public synchronized int hashCode()
+   {
+      flatten();
+      return super.hashCode();
+   }
+
+   /** the owner and base layer aren't serialized, a copy of all the bindings is */
+   protected Object writeReplace()
+   {
+      return new Hashtable(this);
+   }
+}
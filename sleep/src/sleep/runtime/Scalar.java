@@ -2,6 +2,8 @@ package sleep.runtime;
 
 import java.io.*;
 
+import sleep.taint.TaintedValue;
+
 /**
  * <p>A scalar is the universal data type for sleep variables.  Scalars can have numerical values of integer, double, or 
  * long.  Scalars can have a string value.  Scalars can also contain a reference to a scalar array, scalar hash, or a 
@@ -77,6 +79,9 @@ public class Scalar implements Serializable
    protected ScalarType  value = null;
    protected ScalarArray array = null;
    protected ScalarHash  hash  = null;
+   protected boolean     tainted = false; /* true if value came from an external source, see sleep.taint.TaintUtils */
+
+   protected transient TaintedValue wrapped = null; /* the last value getValue() handed out for a tainted value */
 
    /** Returns the actual non-array/non-hash value this scalar contains.  This is mainly for use by internal sleep
        classes that do not want to accidentally convert a hash/array to a string. */
@@ -90,6 +95,14 @@ public class Scalar implements Serializable
        somewhere */
    public ScalarType getValue()
    {
+      if (value != null && tainted)
+      {
+         if (wrapped == null || wrapped.untaint() != value)
+            wrapped = new TaintedValue(value);
+
+         return wrapped;
+      }
+
       if (value != null)
          return value;
 
@@ -107,25 +120,25 @@ public class Scalar implements Serializable
    /** the string value of this scalar */
    public String stringValue()
    {
-      return getValue().toString();
+      return value != null ? value.toString() : getValue().toString();
    }
 
    /** the int value of this scalar */
    public int intValue()
    {
-      return getValue().intValue();
+      return value != null ? value.intValue() : getValue().intValue();
    }
 
    /** the double value of this scalar */
    public double doubleValue()
    {
-      return getValue().doubleValue();
+      return value != null ? value.doubleValue() : getValue().doubleValue();
    }
 
    /** the long value of this scalar */
    public long longValue()
    {
-      return getValue().longValue();
+      return value != null ? value.longValue() : getValue().longValue();
    }
 
    /** the object value of this scalar */
@@ -155,7 +168,17 @@ public class Scalar implements Serializable
    /** set the value of this scalar container to a scalar value of some type */
    public void setValue(ScalarType _value)
    {
-      value = _value.copyValue();
+      if (_value.getClass() == TaintedValue.class)
+      {
+         value   = ((TaintedValue)_value).untaint().copyValue();
+         tainted = true;
+      }
+      else
+      {
+         value   = _value.copyValue();
+         tainted = false;
+      }
+
       array = null;
       hash  = null;
    }
@@ -166,6 +189,7 @@ public class Scalar implements Serializable
       value = null;
       array = _array;
       hash  = null;
+      tainted = false;
    }
 
    /** set the value of this scalar container to a scalar hash */
@@ -174,6 +198,7 @@ public class Scalar implements Serializable
       value = null;
       array = null;
       hash  = _hash;
+      tainted = false;
    }
 
    /** returns an identity value for this scalar.  the identity value is used in set operations.  basically any scalar values
@@ -225,9 +250,24 @@ public class Scalar implements Serializable
       if (newValue == null) { return; }
       if (newValue.getArray() != null) { setValue(newValue.getArray()); return; }
       if (newValue.getHash()  != null) { setValue(newValue.getHash()); return; }
+      if (newValue.getActualValue() != null) { setValue(newValue.getActualValue()); tainted = newValue.tainted; return; }
       if (newValue.getValue() != null) { setValue(newValue.getValue()); return; }
    }
 
+   /** returns true if this scalar holds a value that came from an external source.  A scalar's taint follows its
+       value as it's copied from scalar to scalar.  See {@link sleep.taint.TaintUtils#isTainted(Scalar)} to check
+       the contents of an array or hash. */
+   public boolean isTainted()
+   {
+      return tainted;
+   }
+
+   /** flags the value of this scalar as tainted or not.  Only a scalar value (not an array or hash) can be tainted. */
+   public void setTainted(boolean _tainted)
+   {
+      tainted = _tainted && value != null;
+   }
+
    private void writeObject(ObjectOutputStream out) throws IOException
    {
        if (SleepUtils.isEmptyScalar(this))
@@ -236,7 +276,7 @@ public class Scalar implements Serializable
        }
        else
        {
-          out.writeObject(value);
+          out.writeObject(tainted ? new TaintedValue(value) : value);
        }
        out.writeObject(array);       
        out.writeObject(hash);       
@@ -247,6 +287,12 @@ public class Scalar implements Serializable
        value = (ScalarType)in.readObject();
        array = (ScalarArray)in.readObject();
        hash  = (ScalarHash)in.readObject();
+
+       if (value != null && value.getClass() == TaintedValue.class)
+       {
+          value   = ((TaintedValue)value).untaint();
+          tainted = true;
+       }
    
        if (value == null && array == null && hash == null)
        {
@@ -240,13 +240,30 @@ public class ScriptEnvironment implements Serializable
     protected HashMap  metadata     = new HashMap();
     protected Stack    metaStack    = new Stack();
 
+    /** the foreach loops active in this context, kept in the context metadata and cached here */
+    protected Stack    iterators    = null;
+
     public void loadContext(Stack _context, HashMap _metadata)
     {
        contextStack.push(context);
        metaStack.push(metadata); 
 
-       context  = _context;
-       metadata = _metadata;
+       context   = _context;
+       metadata  = _metadata;
+       iterators = (Stack)getContextMetadata("iterators");
+    }
+
+    /** Returns the stack of foreach loops (sleep.engine.atoms.Iterate.IteratorData) active in this context.  The stack
+        is kept with the context metadata so a closure saves and restores it with its context (i.e. when a coroutine
+        yields in the middle of a foreach loop).  It's cached here so a loop doesn't look it up for each element. */
+    public Stack getIterators()
+    {
+       if (iterators == null)
+       {
+          setContextMetadata("iterators", new Stack());
+       }
+
+       return iterators;
     }
 
     /** Use this function to save some meta data for this particular closure context, passing null for value will
@@ -258,31 +275,48 @@ public class ScriptEnvironment implements Serializable
     {
        if (value == null) 
        {
-          metadata.remove(key);
+          if (metadata != null)
+             metadata.remove(key);
+
+          if ("iterators".equals(key))
+             iterators = null;
        }
        else
        {
+          if (metadata == null)
+             metadata = new HashMap();
+
           metadata.put(key, value);
+
+          if ("iterators".equals(key))
+             iterators = (Stack)value;
        }
     }
 
+    /** Returns the metadata for this context, null if nothing has been stored in it.  A closure loads its metadata
+        with {@link #loadContext(Stack, HashMap)} and uses this to get it back before the context is saved. */
+    public HashMap getContextMetadata()
+    {
+       return metadata;
+    }
+
     /** Returns the data associated with the particular key for this context. */
     public Object getContextMetadata(Object key)
     {
-       return metadata.get(key);
+       return metadata != null ? metadata.get(key) : null;
     }
 
     /** Returns the data associated with the particular key for this context. If the key value is null then the specified default_value is returned */
     public Object getContextMetadata(Object key, Object default_value)
     {
-       Object value = metadata.get(key);
+       Object value = getContextMetadata(key);
 
        if (value == null)
        {
           return default_value;
        }
  
-       return metadata.get(key);
+       return value;
     }
 
     public void addToContext(Block b, Step s)
@@ -294,6 +328,10 @@ public class ScriptEnvironment implements Serializable
        if (isResponsible(b))
        {
           temp.handler = popExceptionContext();
+
+          if (context == null)
+             context = new Stack();
+
           Iterator i = context.iterator();
           while (i.hasNext())
           {  /* semi inefficient but there should be so few handlers per context this shouldn't be much of an issue */
@@ -307,6 +345,9 @@ public class ScriptEnvironment implements Serializable
                                                wether there are more handlers in the current context or not */
        }
 
+       if (context == null)
+          context = new Stack();
+
        context.add(temp);
     }
 
@@ -315,7 +356,7 @@ public class ScriptEnvironment implements Serializable
        Scalar rv = SleepUtils.getEmptyScalar();
 
        Stack cstack = context;
-       context      = new Stack();
+       context      = null;
 
        Iterator i = cstack.iterator();
        while (i.hasNext())
@@ -333,6 +374,9 @@ public class ScriptEnvironment implements Serializable
           {
              while (i.hasNext())
              {
+                if (context == null)
+                   context = new Stack();
+
                 context.add(i.next()); /* adding the remaining context so it doesn't get lost */
              } 
           }
@@ -347,7 +391,8 @@ public class ScriptEnvironment implements Serializable
        Stack cstack = context;
 
        context  = (Stack)(contextStack.pop());
-       metadata = (HashMap)(metaStack.pop());
+       metadata  = (HashMap)(metaStack.pop());
+       iterators = (Stack)getContextMetadata("iterators");
 
        return cstack;
     }
@@ -470,6 +515,9 @@ public class ScriptEnvironment implements Serializable
     /** a special case, pass control flow to the return value (it better be a function!) */
     public static final int FLOW_CONTROL_PASS     = 128;
 
+    /** a special case, return from the current closure by calling the function flagged with flagTailCall */
+    public static final int FLOW_CONTROL_TAIL     = 256;
+
     protected String  debugString       = "";
     protected Scalar rv      = null;
     protected int    request = 0;
@@ -499,6 +547,11 @@ public class ScriptEnvironment implements Serializable
        return (request & FLOW_CONTROL_PASS) == FLOW_CONTROL_PASS;
     }
 
+    public boolean isTailCall()
+    {
+       return (request & FLOW_CONTROL_TAIL) == FLOW_CONTROL_TAIL;
+    }
+
     public Scalar getReturnValue()
     {
        return rv;
@@ -535,6 +588,55 @@ public class ScriptEnvironment implements Serializable
        request = type_of_flow;
     }
 
+    /** the function, name, and arguments of the pending tail call */
+    protected Function tailFunction  = null;
+    protected String   tailName      = null;
+    protected Stack    tailArguments = null;
+
+    /** the code of the closure being evaluated, see SleepClosure */
+    protected Block    closureBody   = null;
+
+    /** flags a return from the current closure.  the closure calls the specified function with these arguments
+        and returns its result rather than the caller nesting another call. */
+    public void flagTailCall(String name, Function function, Stack arguments)
+    {
+       tailName      = name;
+       tailFunction  = function;
+       tailArguments = arguments;
+       flagReturn(null, FLOW_CONTROL_TAIL);
+    }
+
+    /** returns the function of the pending tail call */
+    public Function getTailFunction()
+    {
+       return tailFunction;
+    }
+
+    /** returns the name the pending tail call was made with */
+    public String getTailName()
+    {
+       return tailName;
+    }
+
+    /** returns the arguments of the pending tail call */
+    public Stack getTailArguments()
+    {
+       return tailArguments;
+    }
+
+    /** returns the code of the closure that is being evaluated, a function call in tail position of this code may be
+        flagged as a tail call */
+    public Block getClosureBody()
+    {
+       return closureBody;
+    }
+
+    /** sets the code of the closure that is being evaluated */
+    public void setClosureBody(Block body)
+    {
+       closureBody = body;
+    }
+
     /** Resets the script environment to include clearing the return of all flags (including thrown exceptions) */
     public void resetEnvironment()
     {
@@ -553,7 +655,7 @@ public class ScriptEnvironment implements Serializable
            rv      = null;
     }
 
-    /** how many stacks does this damned class include? */
+    /** how many stacks does this damned class include?  holds source names and the blocks of running closures */
     protected Stack sources = new Stack(); 
 
     /** push source information onto the source stack */
@@ -562,11 +664,26 @@ public class ScriptEnvironment implements Serializable
        sources.push(s);
     }
 
+    /** push the body of a closure (or inline code) that's about to run onto the source stack.  The steps of a block and
+        its nested blocks come from the same source, so a block doesn't push itself as it runs.  The source name is
+        read from the block only when it's asked for (i.e. by a warning or stack trace). */
+    public void pushSource(Block code) 
+    {
+       sources.push(code);
+    }
+
     /** obtain the filename of the current source of execution */
     public String getCurrentSource()
     {
        if (!sources.isEmpty())
-          return sources.peek() + "";
+       {
+          Object top = sources.peek();
+
+          if (top instanceof Block)
+             return ((Block)top).getSource();
+
+          return top + "";
+       }
 
        return "unknown";
     }
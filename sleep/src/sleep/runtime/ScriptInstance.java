@@ -162,7 +162,7 @@ public class ScriptInstance implements Serializable, Runnable
     {
         if (environmentToShare == null)
         {
-           environmentToShare = new Hashtable();
+           environmentToShare = new SnapshotEnvironment();
         }
 
         if (varContainerToUse == null)
@@ -201,6 +201,7 @@ public class ScriptInstance implements Serializable, Runnable
     public void setScriptVariables(ScriptVariables v)
     {
         variables = v;
+        metadata  = null;
     }
 
     /** Returns the variable container used by this script */
@@ -344,16 +345,17 @@ public class ScriptInstance implements Serializable, Runnable
         when DEBUG_TRACE_CALLS or DEBUG_TRACE_PROFILE_ONLY is enabled */
     public void collect(String function, int lineNo, long ticks)
     {
-       Map    statistics = (Map)getMetadata().get("%statistics%");
-       Long   total      = (Long)getMetadata().get("%total%");
+       Map    meta       = getMetadata();
+       Map    statistics = (Map)meta.get("%statistics%");
+       Long   total      = (Long)meta.get("%total%");
 
        if (statistics == null) 
        {
           statistics = new HashMap();
           total      = new Long(0L);
 
-          getMetadata().put("%statistics%", statistics);
-          getMetadata().put("%total%", total);
+          meta.put("%statistics%", statistics);
+          meta.put("%total%", total);
        }
 
        ProfilerStatistic stats = (ProfilerStatistic)statistics.get(function);
@@ -371,7 +373,7 @@ public class ScriptInstance implements Serializable, Runnable
        stats.calls ++;
 
        /** update global statistic */
-       getMetadata().put("%total%", new Long(total.longValue() + ticks));
+       meta.put("%total%", new Long(total.longValue() + ticks));
     }
 
     /** a quick way to check if we are profiling and not tracing the script steps */
@@ -400,9 +402,16 @@ public class ScriptInstance implements Serializable, Runnable
         }
     }
 
+    /** the script meta data, shared with forks of this script.  it's also stored in the __meta__ global variable,
+        this saves looking it up there each time it's used */
+    protected Map metadata = null;
+
     /** retrieves script meta data for you to update */
     public Map getMetadata()
     {
+       if (metadata != null)
+          return metadata;
+
        Scalar container = getScriptVariables().getGlobalVariables().getScalar("__meta__");
        Map    meta      = null;
 
@@ -416,6 +425,7 @@ public class ScriptInstance implements Serializable, Runnable
           meta = (Map)container.objectValue();
        }
 
+       metadata = meta;
        return meta;
     }
 
@@ -434,30 +444,12 @@ public class ScriptInstance implements Serializable, Runnable
 
     /** Call this function if you're sharing a script environment with other script instances.  This will sanitize the current
         script environment to avoid leakage between closure scopes, coroutines, and continuations.  Call this after script loading / bridge installation and
-        before you run any scripts. */
+        before you run any scripts.  A snapshot of the shared environment becomes the base layer of a new environment that
+        holds the bindings this script changes, and each subroutine is cloned for this script the first time it's looked up.
+        Changes made to the shared environment after this call don't reach this script. */
     public void makeSafe()
     {
-        Hashtable oldEnv = environment.getEnvironment();
-        Hashtable newEnv = new Hashtable(  (oldEnv.size() * 2) - 1  );
-
-        /* reset the environment please */
-        Iterator i = oldEnv.entrySet().iterator();
-        while (i.hasNext())
-        {
-            Map.Entry temp = (Map.Entry)i.next();
-            if (temp.getKey().toString().charAt(0) == '&' && temp.getValue() instanceof SleepClosure)
-            {
-               SleepClosure closure = new SleepClosure(this, ((SleepClosure)temp.getValue()).getRunnableCode());
-               newEnv.put(temp.getKey(), closure);
-            }
-            else
-            { 
-               newEnv.put(temp.getKey(), temp.getValue());
-            }
-        }
-
-        /* update the environment */
-        environment.setEnvironment(newEnv);
+        environment.setEnvironment(new LayeredEnvironment(this, environment.getEnvironment()));
     }
 
     /** Creates a forked script instance.  This does not work like fork in an operating system.  Variables are not copied, period.
@@ -474,6 +466,7 @@ public class ScriptInstance implements Serializable, Runnable
 
         /* make sure things like profiler statistics and metadata are shared between threads. */
         si.getScriptVariables().getGlobalVariables().putScalar("__meta__", SleepUtils.getScalar((Object)getMetadata()));
+        si.metadata = getMetadata();
  
         return si;
     }
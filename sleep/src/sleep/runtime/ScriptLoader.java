@@ -37,8 +37,6 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
 import java.util.*;
 
-import sleep.taint.*;
-
 /**
  * <p>The ScriptLoader is a convienence container for instantiating and managing ScriptInstances.</p>
  *
@@ -431,12 +429,6 @@ public class ScriptLoader
         else 
         {
             Parser temp = new Parser(name, code);
- 
-            if (TaintUtils.isTaintMode())
-            {
-               temp.setCodeFactory(new TaintModeGeneratedSteps());
-            }
-
             temp.parse();
 
             if (BLOCK_CACHE != null)
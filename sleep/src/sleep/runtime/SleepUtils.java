@@ -421,60 +421,64 @@ public class SleepUtils
    {
       StringBuffer values = new StringBuffer();
 
-      Iterator i = arguments.iterator();
-      while (i.hasNext())
+      for (int x = arguments.size() - 1; x >= 0; x--)
       {
-         Scalar tempz = (Scalar)i.next();
+         values.append(SleepUtils.describe((Scalar)arguments.get(x)));
 
-         values.insert(0, SleepUtils.describe(tempz));
-
-         if (i.hasNext()) { values.insert(0, ", "); }
+         if (x > 0) { values.append(", "); }
       }
 
       return values.toString();
    }
 
-   private static String describeEntries(List seen, Scalar scalar)
+   /** writes the description of a scalar.  seen maps each array and hash described so far to the order it was first
+       seen in, a container seen again is written as a reference to that number i.e. @0 */
+   private static void describeEntries(Writer out, Map seen, Scalar scalar) throws IOException
    {
       if (scalar.getArray() != null)
       {
-         if (seen.contains(scalar.getArray()))
+         Integer index = (Integer)seen.get(scalar.getArray());
+
+         if (index != null)
          {
-            return "@" + seen.indexOf(scalar.getArray());
+            out.write("@" + index);
          }
          else
          {
-            seen.add(scalar.getArray());
+            seen.put(scalar.getArray(), new Integer(seen.size()));
 
-            StringBuffer buffer = new StringBuffer("@(");
+            out.write("@(");
 
             Iterator i = scalar.getArray().scalarIterator();
             while (i.hasNext())
             {
                Scalar next = (Scalar)i.next();
-               buffer.append(describeEntries(seen, next));
+               describeEntries(out, seen, next);
 
                if (i.hasNext())
                {
-                  buffer.append(", ");
+                  out.write(", ");
                }
             }
 
-            buffer.append(")");
-            return buffer.toString();
+            out.write(")");
          }
       }
       else if (scalar.getHash() != null)
       {
-         if (seen.contains(scalar.getHash()))
+         Integer index = (Integer)seen.get(scalar.getHash());
+
+         if (index != null)
          {
-            return "%" + seen.indexOf(scalar.getHash());
+            out.write("%" + index);
          }
          else
          {
-            seen.add(scalar.getHash());
+            seen.put(scalar.getHash(), new Integer(seen.size()));
 
-            StringBuffer buffer = new StringBuffer("%(");
+            out.write("%(");
+
+            boolean first = true;
 
             Iterator i = scalar.getHash().getData().entrySet().iterator();
             while (i.hasNext())
@@ -484,75 +488,82 @@ public class SleepUtils
 
                if (!SleepUtils.isEmptyScalar((Scalar)next.getValue()))
                {
-                  if (buffer.length() > 2)
+                  if (!first)
                   {
-                     buffer.append(", ");
+                     out.write(", ");
                   }
 
-                  buffer.append(next.getKey());
-                  buffer.append(" => ");
+                  first = false;
+
+                  out.write(String.valueOf(next.getKey()));
+                  out.write(" => ");
   
-                  buffer.append(describeEntries(seen, value));
+                  describeEntries(out, seen, value);
                } 
             }
 
-            buffer.append(")");
-            return buffer.toString();
+            out.write(")");
          }
       }
       else
       {
-         if (scalar.getActualValue().getType() == NullValue.class)
-         {
-            return "$null";
-         }
-         else if (scalar.getActualValue().getType() == StringValue.class)
-         {
-            return "'" + scalar.toString() + "'";
-         }
-         else if (isFunctionScalar(scalar))
-         {
-            return scalar.toString();
-         }
-         else if (scalar.objectValue() instanceof KeyValuePair)
-         {
-            KeyValuePair kvp = (KeyValuePair)scalar.objectValue();
-            return kvp.getKey().toString() + " => " + describe(kvp.getValue());
-         }
-         else if (scalar.getActualValue().getType() == ObjectValue.class)
+         out.write(describeValue(scalar));
+      }
+   }
+
+   /** returns the description of a scalar that isn't an array or a hash */
+   private static String describeValue(Scalar scalar)
+   {
+      if (scalar.getActualValue().getType() == NullValue.class)
+      {
+         return "$null";
+      }
+      else if (scalar.getActualValue().getType() == StringValue.class)
+      {
+         return "'" + scalar.toString() + "'";
+      }
+      else if (isFunctionScalar(scalar))
+      {
+         return scalar.toString();
+      }
+      else if (scalar.objectValue() instanceof KeyValuePair)
+      {
+         KeyValuePair kvp = (KeyValuePair)scalar.objectValue();
+         return kvp.getKey().toString() + " => " + describe(kvp.getValue());
+      }
+      else if (scalar.getActualValue().getType() == ObjectValue.class)
+      {
+         if (java.lang.reflect.Proxy.isProxyClass(scalar.objectValue().getClass()))
          {
-            if (java.lang.reflect.Proxy.isProxyClass(scalar.objectValue().getClass()))
-            {
-               StringBuffer buffer = new StringBuffer();
-               buffer.append("[");
-               buffer.append(java.lang.reflect.Proxy.getInvocationHandler(scalar.objectValue()).toString());
-               buffer.append(" as ");
+            StringBuffer buffer = new StringBuffer();
+            buffer.append("[");
+            buffer.append(java.lang.reflect.Proxy.getInvocationHandler(scalar.objectValue()).toString());
+            buffer.append(" as ");
 
-               Class[] interfaces = scalar.objectValue().getClass().getInterfaces();
+            Class[] interfaces = scalar.objectValue().getClass().getInterfaces();
 
-               for (int x = 0; x < interfaces.length; x++)
+            for (int x = 0; x < interfaces.length; x++)
+            {
+               if (x > 0)
                {
-                  if (x > 0)
-                  {
-                     buffer.append(", "); 
-                  }
-                  buffer.append(interfaces[x].getName());
+                  buffer.append(", "); 
                }
+               buffer.append(interfaces[x].getName());
+            }
 
-               buffer.append("]");
+            buffer.append("]");
 
-               return buffer.toString();
-            }
-            return scalar.toString();
-         }
-         else if (scalar.getActualValue().getType() == LongValue.class)
-         {
-            return scalar.toString() + "L";
-         }
-         else
-         {
-            return scalar.toString();
+            return buffer.toString();
          }
+         return scalar.toString();
+      }
+      else if (scalar.getActualValue().getType() == LongValue.class)
+      {
+         return scalar.toString() + "L";
+      }
+      else
+      {
+         return scalar.toString();
       }
    }
 
@@ -561,7 +572,25 @@ public class SleepUtils
        objects in brackets, $null is displayed as $null, etc. */
    public static String describe(Scalar scalar)
    {
-      return describeEntries(new LinkedList(), scalar);
+      StringWriter out = new StringWriter();
+
+      try
+      {
+         describe(out, scalar);
+      }
+      catch (IOException ex)
+      {
+         /* a StringWriter doesn't throw this */
+      }
+
+      return out.toString();
+   }
+
+   /** writes the description of the specified scalar (see {@link #describe(Scalar)}) to the specified writer as it is
+       generated.  Use this to print a large array or hash without building its description in memory first. */
+   public static void describe(Writer out, Scalar scalar) throws IOException
+   {
+      describeEntries(out, new IdentityHashMap(), scalar);
    }
 
    /** returns an empty hashmap scalar */
@@ -648,24 +677,20 @@ public class SleepUtils
       return temp;
    }
 
-   /** constructs a string scalar with value x interpreted as an array of unsigned bytes */
+   /** constructs a string scalar with value x interpreted as an array of unsigned bytes.  The array is copied. */
    public static Scalar getScalar(byte[] x)
    {
       return getScalar(x, x.length);
    }
 
-   /** constructs a string scalar with value x interpreted as an array of unsigned bytes */
+   /** constructs a string scalar with the first length bytes of x interpreted as unsigned bytes.  The bytes are copied. */
    public static Scalar getScalar(byte[] x, int length)
    {
-      Scalar temp = new Scalar();
-      StringBuffer buff = new StringBuffer(length);
-      for (int y = 0; y < length; y++)
-      {
-         char append = (char)(x[y] & 0xFF);
-         buff.append(append);
-      }
+      byte[] data = new byte[length];
+      System.arraycopy(x, 0, data, 0, length);
 
-      temp.setValue(new StringValue(buff.toString()));
+      Scalar temp = new Scalar();
+      temp.setValue(new BytesValue(data));
  
       return temp;
    }
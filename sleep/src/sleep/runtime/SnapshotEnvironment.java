@@ -0,0 +1,310 @@
+/*
+   SLEEP - Simple Language for Environment Extension Purposes
+ .-----------------------------------.
+ | sleep.runtime.SnapshotEnvironment |________________________________________
+ |                                                                            |
+   Author: Raphael Mudge (rsmudge@mtu.edu)
+           http://www.csl.mtu.edu/~rsmudge/
+
+   Description:
+     An environment table that is read without taking its lock.
+
+   Documentation:
+
+   Changelog:
+
+   * This software is distributed under the artistic license, see license.txt
+     for more information. *
+
+ |____________________________________________________________________________|
+ */
+
+package sleep.runtime;
+
+import java.util.*;
+
+/** <p>A script environment table for scripts that share an environment across threads.  Every function, operator, and
+  * predicate call looks itself up in the environment; with a plain Hashtable each of those lookups takes the table's
+  * lock.  This table is read from a copy of itself that is never modified, so lookups don't take a lock.  A change
+  * to the table (i.e. a bridge installing a function, or a sub being declared) throws the copy away.  Lookups take
+  * the lock until there have been enough of them to pay for a new copy.</p>
+  *
+  * <p>Change this table with put, putAll, remove, clear, or through its key, value, and entry views.  The Map
+  * methods added after Java 1.4 (putIfAbsent, replace, compute, merge, and the like) change the table without
+  * throwing the copy away, lookups keep reading the old bindings until the next change made the usual way.</p>
+  *
+  * <p>This is the default environment of a script instance.  To share one between scripts:</p>
+  *
+  * <pre>
+  * Hashtable environment = new SnapshotEnvironment();
+  * ScriptInstance script = loader.loadScript("script.sl", environment);
+  * </pre>
+  */
+public class SnapshotEnvironment extends Hashtable
+{
+   /** a copy of this table that's read without a lock, null if this table has changed since it was made */
+   protected transient volatile Map snapshot = null;
+
+   /** the number of locked reads since this table last changed */
+   protected int reads = 0;
+
+   public SnapshotEnvironment()
+   {
+      super();
+   }
+
+   /** the copy is out of date, called with the lock held */
+   private void changed()
+   {
+      snapshot = null;
+      reads    = 0;
+   }
+
+   /** returns the copy of this table to read from, null if it's out of date and shouldn't be made yet */
+   private synchronized Map locked()
+   {
+      if (snapshot == null && ++reads > (super.size() / 4) + 16)
+         copy();
+
+      return snapshot;
+   }
+
+   /** makes a new copy of this table to read from, called with the lock held */
+   private void copy()
+   {
+      Map temp = new HashMap((super.size() * 2) + 1);
+
+      Iterator i = super.entrySet().iterator();
+      while (i.hasNext())
+      {
+         Map.Entry entry = (Map.Entry)i.next();
+         temp.put(entry.getKey(), entry.getValue());
+      }
+
+      snapshot = temp;
+   }
+
+   /** returns the copy of this table that lookups read from, making it if it's out of date.  The copy is never
+       modified, a change to this table replaces it.  Used to take the base layer of a forked environment. */
+   synchronized Map getSnapshot()
+   {
+      if (snapshot == null)
+         copy();
+
+      return snapshot;
+   }
+
+   public Object get(Object key)
+   {
+      Map temp = snapshot;
+
+      if (temp == null)
+      {
+         temp = locked();
+
+         if (temp == null)
+            return super.get(key);
+      }
+
+      return temp.get(key);
+   }
+
+   public boolean containsKey(Object key)
+   {
+      Map temp = snapshot;
+
+      if (temp == null)
+      {
+         temp = locked();
+
+         if (temp == null)
+            return super.containsKey(key);
+      }
+
+      return temp.containsKey(key);
+   }
+
+   public synchronized Object put(Object key, Object value)
+   {
+      Object old = super.put(key, value);
+      changed();
+      return old;
+   }
+
+   public synchronized Object remove(Object key)
+   {
+      Object old = super.remove(key);
+      changed();
+      return old;
+   }
+
+   public synchronized void clear()
+   {
+      super.clear();
+      changed();
+   }
+
+   public synchronized Set keySet()
+   {
+      return new SetView(super.keySet(), false);
+   }
+
+   public synchronized Set entrySet()
+   {
+      return new SetView(super.entrySet(), true);
+   }
+
+   public synchronized Collection values()
+   {
+      return new View(super.values(), false);
+   }
+
+   /** a view of this table, changes made through the view throw the copy away */
+   private class View extends AbstractCollection
+   {
+      protected Collection values;
+      protected boolean    entries;
+
+      public View(Collection _values, boolean _entries)
+      {
+         values  = _values;
+         entries = _entries;
+      }
+
+      public int size()
+      {
+         return values.size();
+      }
+
+      public boolean contains(Object o)
+      {
+         return values.contains(o);
+      }
+
+      public boolean remove(Object o)
+      {
+         synchronized (SnapshotEnvironment.this)
+         {
+            boolean result = values.remove(o);
+            changed();
+            return result;
+         }
+      }
+
+      public void clear()
+      {
+         SnapshotEnvironment.this.clear();
+      }
+
+      public Iterator iterator()
+      {
+         final Iterator i = values.iterator();
+
+         return new Iterator()
+         {
+            public boolean hasNext()
+            {
+               return i.hasNext();
+            }
+
+            public Object next()
+            {
+               Object next = i.next();
+               return entries ? new Entry((Map.Entry)next) : next;
+            }
+
+            public void remove()
+            {
+               synchronized (SnapshotEnvironment.this)
+               {
+                  i.remove();
+                  changed();
+               }
+            }
+         };
+      }
+   }
+
+   /** a view of the keys or entries of this table, compares as a set */
+   private class SetView extends View implements Set
+   {
+      public SetView(Collection _values, boolean _entries)
+      {
+         super(_values, _entries);
+      }
+
+      public boolean equals(Object o)
+      {
+         if (o == this)
+            return true;
+
+         if (!(o instanceof Set))
+            return false;
+
+         Collection other = (Collection)o;
+         return other.size() == size() && containsAll(other);
+      }
+
+      public int hashCode()
+      {
+         int h = 0;
+
+         Iterator i = iterator();
+         while (i.hasNext())
+         {
+            Object next = i.next();
+
+            if (next != null)
+               h += next.hashCode();
+         }
+
+         return h;
+      }
+   }
+
+   /** an entry of this table, setting its value throws the copy away */
+   private class Entry implements Map.Entry
+   {
+      protected Map.Entry entry;
+
+      public Entry(Map.Entry _entry)
+      {
+         entry = _entry;
+      }
+
+      public Object getKey()
+      {
+         return entry.getKey();
+      }
+
+      public Object getValue()
+      {
+         return entry.getValue();
+      }
+
+      public Object setValue(Object value)
+      {
+         synchronized (SnapshotEnvironment.this)
+         {
+            Object old = entry.setValue(value);
+            changed();
+            return old;
+         }
+      }
+
+      public boolean equals(Object o)
+      {
+         return entry.equals(o);
+      }
+
+      public int hashCode()
+      {
+         return entry.hashCode();
+      }
+
+      public String toString()
+      {
+         return entry.toString();
+      }
+   }
+}
@@ -65,7 +65,7 @@ public class WatchScalar extends Scalar
        }
        else
        {
-          out.writeObject(value);
+          out.writeObject(tainted ? new TaintedValue(value) : value);
        }
        out.writeObject(array);
        out.writeObject(hash);
@@ -77,6 +77,12 @@ public class WatchScalar extends Scalar
        array = (ScalarArray)in.readObject();
        hash  = (ScalarHash)in.readObject();
 
+       if (value != null && value.getClass() == TaintedValue.class)
+       {
+          value   = ((TaintedValue)value).untaint();
+          tainted = true;
+       }
+
        if (value == null && array == null && hash == null)
        {
           setValue(SleepUtils.getEmptyScalar());
@@ -18,6 +18,11 @@ public class Sensitive implements Function
 
    public Scalar evaluate(String name, ScriptInstance script, Stack arguments)
    {
+      if (!TaintUtils.isTainted(arguments))
+      {
+         return ((Function)function).evaluate(name, script, arguments);
+      }
+
       Stack dangers = new Stack();
       Iterator i = arguments.iterator();
       while (i.hasNext())
@@ -30,13 +35,6 @@ public class Sensitive implements Function
          }
       }
 
-      if (dangers.isEmpty())
-      {
-         return ((Function)function).evaluate(name, script, arguments);
-      }
-      else
-      {
-         throw new RuntimeException("Insecure " + name + ": " + SleepUtils.describe(dangers) + " is tainted");
-      }
+      throw new RuntimeException("Insecure " + name + ": " + SleepUtils.describe(dangers) + " is tainted");
    }
 }
@@ -15,11 +15,16 @@ import java.util.*;
     <p>Terminology used here comes from <a href="http://news.php.net/php.internals/26979">Run-time taint support proposal</a> by Wietse Venema posted to the 
     PHP internals mailing list.</p>
 
-    <p>Sleep's implementation of taint is designed to have little to no runtime impact when turned off.  When enabled taint mode wraps operations within the
-    Sleep interpreter with taint wrappers.  These wrappers check if any of the arguments on the current "frame" are tainted.  If the answer is yes then the
-    original operation is executed as normal and the return value is tainted.</p>
+    <p>Sleep's implementation of taint is designed to have little to no runtime impact when turned off.  When enabled the Sleep interpreter checks if any of the
+    arguments on the current "frame" of an operation are tainted.  If the answer is yes then the operation is executed as normal and the return value is
+    tainted.</p>
+
+    <p>A tainted value is flagged on the Scalar that holds it (see {@link Scalar#isTainted()}) and the flag follows the value as it is copied.  Checking an
+    argument is a test of this flag, operations on a tainted value see its real type, and the work of describing tainted values is only done when a Sensitive
+    function rejects them or taint tracing (debug level 128) is on.  The {@link TaintedValue} wrapper is still accepted by Scalar.setValue(ScalarType) and
+    returned by Scalar.getValue() for a tainted value, so bridges that copy values as ScalarTypes keep the taint.</p>
    
-    <p>Wrapped operations include operations and function calls.  Parsed literals are treated as a special case.</p>
+    <p>Checked operations include operators, function calls, parsed literals, and object creation and access.</p>
 
     <p>Sleep has 4 categories of functions and their relation to tainted values:</p>
    
@@ -68,7 +73,7 @@ public class TaintUtils
     {
        if (isTaintMode() && value.getActualValue() != null)
        {
-          value.setValue(new TaintedValue(value.getActualValue()));
+          value.setTainted(true);
        }
 
        return value;
@@ -123,7 +128,7 @@ public class TaintUtils
        }
        else if (value.getActualValue() != null)
        {
-          value.setValue(new TaintedValue(value.getActualValue()));
+          value.setTainted(true);
        }
 
        return value;
@@ -132,10 +137,7 @@ public class TaintUtils
     /** untaints the specified scalar.  returns the original container. */
     public static Scalar untaint(Scalar value)
     {
-       if (value.getActualValue() != null && value.getActualValue().getClass() == TaintedValue.class)
-       {
-          value.setValue(((TaintedValue)value.getActualValue()).untaint());
-       }
+       value.setTainted(false);
        return value;
     }
 
@@ -180,7 +182,7 @@ public class TaintUtils
        }
        else
        {
-          return value.getActualValue().getClass() == TaintedValue.class && !SleepUtils.isEmptyScalar(value);
+          return value.isTainted() && !SleepUtils.isEmptyScalar(value);
        }
     }
 
@@ -237,6 +239,72 @@ public class TaintUtils
        }
     }
 
+    /** returns true if any of the values in the specified argument stack are tainted */
+    public static boolean isTainted(Stack arguments)
+    {
+       for (int x = 0; x < arguments.size(); x++)
+       {
+          if (isTainted((Scalar)arguments.get(x)))
+          {
+             return true;
+          }
+       }
+
+       return false;
+    }
+
+    /** returns true if the specified function or operator returns a tainted result only when its arguments are tainted.  Tainters and
+        Sanitizers decide the taint of their results on their own. */
+    public static boolean isPermeable(Object f)
+    {
+       return f.getClass() != Tainter.class && f.getClass() != Sanitizer.class;
+    }
+
+    /** returns null if none of the values on the current frame are tainted.  Otherwise returns a description of the tainted values for
+        {@link #taintResult(ScriptEnvironment, Scalar, String, int)}, the description is only built when taint tracing is on. */
+    public static String checkFrame(ScriptEnvironment e)
+    {
+       if (!e.hasFrame() || !isTainted(e.getCurrentFrame()))
+       {
+          return null;
+       }
+
+       if ((e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_TRACE_TAINT) == ScriptInstance.DEBUG_TRACE_TAINT)
+       {
+          return checkArguments(e.getCurrentFrame());
+       }
+
+       return "";
+    }
+
+    /** taints the result of an operation on tainted values, desc is the value returned by checkFrame before the operation.  A warning
+        is fired for the result when taint tracing is on. */
+    public static Scalar taintResult(ScriptEnvironment e, Scalar result, String desc, int lineNumber)
+    {
+       if (SleepUtils.isEmptyScalar(result) || result.getActualValue() == null)
+       {
+          return result;
+       }
+
+       result.setTainted(true);
+
+       if ((e.getScriptInstance().getDebugFlags() & ScriptInstance.DEBUG_TRACE_TAINT) == ScriptInstance.DEBUG_TRACE_TAINT)
+       {
+          e.getScriptInstance().fireWarning("tainted value: " + SleepUtils.describe(result) + " from: " + desc, lineNumber);
+       }
+
+       return result;
+    }
+
+    /** taints the result an operation on tainted values placed on the current frame, see taintResult(ScriptEnvironment, Scalar, String, int) */
+    public static void taintResult(ScriptEnvironment e, String desc, int lineNumber)
+    {
+       if (e.hasFrame() && !e.getCurrentFrame().isEmpty())
+       {
+          taintResult(e, (Scalar)e.getCurrentFrame().peek(), desc, lineNumber);
+       }
+    }
+
     /** checks the specified argument stack for tainted values.  If there are tainted values a comma separated string description is returned.  Otherwise null is returned. */
     public static String checkArguments(Stack arguments)
     {
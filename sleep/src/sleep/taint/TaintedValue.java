@@ -6,7 +6,8 @@ import sleep.runtime.*;
 
 import java.util.*;
 
-/** A tainted scalar value *pHEAR* */
+/** A tainted scalar value *pHEAR*.  A Scalar keeps its taint as a flag, this wrapper is how a tainted value travels
+    through code that copies values as ScalarTypes.  Scalar.setValue(ScalarType) unwraps it and flags the scalar. */
 public class TaintedValue implements ScalarType
 {
    protected ScalarType value = null;